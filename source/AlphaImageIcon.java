@@ -27,6 +27,7 @@ public class AlphaImageIcon extends ImageIcon {
   private Icon icon;
   private Image image;
   private float alpha;
+  private boolean prerendered;
 
   /**
    * Creates an <CODE>AlphaImageIcon</CODE> with the specified icon and opacity.
@@ -117,6 +118,30 @@ public class AlphaImageIcon extends ImageIcon {
     return alpha;
   }
 
+  /**
+   * Returns whether this <CODE>AlphaImageIcon</CODE> paints from a prerendered image.
+   * @return true if the translucent icon is prerendered
+   */
+  public boolean isPrerendered() {
+    return prerendered;
+  }
+
+  /**
+   * Sets whether this <CODE>AlphaImageIcon</CODE> paints from a translucent image held by
+   * the shared {@link IconRenditionCache}, rather than applying a composite and
+   * painting the wrapped icon every time.  The image is shared by all wrappers
+   * of the same icon with the same opacity.
+   * <P>
+   * Animated icons are always painted directly.  If the wrapped icon changes
+   * without changing its size, invoke
+   * <CODE>IconRenditionCache.getSharedInstance().invalidate(icon)</CODE>.
+   *
+   * @param prerendered true to paint from a prerendered image
+   */
+  public void setPrerendered(boolean prerendered) {
+    this.prerendered = prerendered;
+  }
+
   /**
    * Gets the icon wrapped by this <CODE>AlphaIcon</CODE>
    * @return the wrapped icon
@@ -140,12 +165,27 @@ public class AlphaImageIcon extends ImageIcon {
     } else {
       image = null;
     }
+    if (prerendered && IconRenditionCache.getSharedInstance().paintIcon(
+            icon, alpha, getIconWidth(), getIconHeight(), c, g, x, y,
+            this::paintTranslucentImage)) {
+      return;
+    }
     Graphics2D g2 = (Graphics2D) g.create();
     g2.setComposite(AlphaComposite.SrcAtop.derive(alpha));
     icon.paintIcon(c, g2, x, y);
     g2.dispose();
   }
 
+  /*
+   * Paints the wrapped icon into an empty image and then scales the alpha of
+   * every pixel, as SrcAtop would leave an empty image empty.
+   */
+  private void paintTranslucentImage(Component c, Graphics2D g2) {
+    icon.paintIcon(c, g2, 0, 0);
+    g2.setComposite(AlphaComposite.DstIn.derive(alpha));
+    g2.fillRect(0, 0, getIconWidth(), getIconHeight());
+  }
+
   /**
    * Gets the width of the bounding rectangle of this <CODE>AlphaImageIcon</CODE>.
    * Overridden to return the width of the wrapped icom.
@@ -1,12 +1,29 @@
+import java.awt.AlphaComposite;
 import java.awt.Component;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
 import javax.swing.Icon;
+import javax.swing.ImageIcon;
 import javax.swing.JComponent;
-import javax.swing.Timer;
+import javax.swing.SwingWorker;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 
 /**
  *  The AnimatedIcon will display a series of Icons in a predetermined
@@ -25,6 +42,15 @@ import javax.swing.Timer;
  *  displayed in the order in which they are added. To create custom animation
  *  sequences you will need to override the getNextIconIndex() and
  *  isCycleCompleted() methods.
+ *
+ *  All AnimatedIcons share a single Timer through the FrameScheduler, so
+ *  hundreds of AnimatedIcons don't create hundreds of Timers. The animation
+ *  is paused while the component is not visible.
+ *
+ *  In sprite sheet mode all the Icons are painted once into a single image
+ *  and each paint simply copies the area of the current Icon from that image.
+ *  Frames can be decoded from an animated GIF, or from a sequence of images,
+ *  on a background thread by using the loadFrames() method.
  */
 public class AnimatedIcon implements Icon, ActionListener, Runnable
 {
@@ -62,7 +88,13 @@ public class AnimatedIcon implements Icon, ActionListener, Runnable
 	private int currentIconIndex;
 	private int cyclesCompleted;
 	private boolean animationFinished = true;
-	private Timer timer;
+	private FrameScheduler.Subscription timer;
+
+	//  Used for the sprite sheet mode
+
+	private boolean spriteSheet;
+	private BufferedImage sheet;
+	private int sheetColumns;
 
 	/**
 	 *  Create an AnimatedIcon that will continuously cycle with the
@@ -114,7 +146,8 @@ public class AnimatedIcon implements Icon, ActionListener, Runnable
 			}
 		}
 
-		timer = new Timer(delay, this);
+		timer = FrameScheduler.getSharedInstance().subscribe(delay, this);
+		timer.setPauseWhenHidden( component );
 	}
 
 	/**
@@ -130,6 +163,7 @@ public class AnimatedIcon implements Icon, ActionListener, Runnable
 			{
 				this.icons.add( icon );
 				calculateIconDimensions();
+				sheet = null;
 			}
 		}
 	}
@@ -169,6 +203,7 @@ public class AnimatedIcon implements Icon, ActionListener, Runnable
 	public void setAlignmentX(float alignmentX)
 	{
 		this.alignmentX = alignmentX > 1.0f ? 1.0f : alignmentX < 0.0f ? 0.0f : alignmentX;
+		sheet = null;
 	}
 
 	/**
@@ -190,6 +225,212 @@ public class AnimatedIcon implements Icon, ActionListener, Runnable
 	public void setAlignmentY(float alignmentY)
 	{
 		this.alignmentY = alignmentY > 1.0f ? 1.0f : alignmentY < 0.0f ? 0.0f : alignmentY;
+		sheet = null;
+	}
+
+	/**
+	 *  Is the sprite sheet mode used?
+	 *
+	 *  @return true when the Icons are painted from a sprite sheet
+	 */
+	public boolean isSpriteSheet()
+	{
+		return spriteSheet;
+	}
+
+	/**
+	 *  Paint the Icons from a sprite sheet. All the Icons are painted once,
+	 *  aligned within a cell of the sheet, into an image compatible with the
+	 *  screen so copying a single cell can be accelerated. The sheet is
+	 *  recreated when Icons are added.
+	 *
+	 *  Only use this mode when the Icons themselves are static.
+	 *
+	 *  @param spriteSheet  true to paint the Icons from a sprite sheet
+	 */
+	public void setSpriteSheet(boolean spriteSheet)
+	{
+		this.spriteSheet = spriteSheet;
+		sheet = null;
+	}
+
+	/**
+	 *  Load the Icons to be used in the animation on a background thread.
+	 *  Every frame of an animated GIF is added as a separate Icon. Each other
+	 *  image is added as a single Icon. The Icons are added, on the Event
+	 *  Dispatch Thread, once all the images have been decoded. When an image
+	 *  can't be decoded no Icons are added, so the animation keeps its current
+	 *  Icons, and an IllegalStateException is thrown on the Event Dispatch
+	 *  Thread.
+	 *
+	 *  @param sources  the URLs of the images to be decoded
+	 *  @return  the SwingWorker decoding the images. Its get() method will
+	 *           return the Icons, or rethrow any decoding error.
+	 */
+	public SwingWorker<List<Icon>, Void> loadFrames(final URL... sources)
+	{
+		SwingWorker<List<Icon>, Void> worker = new SwingWorker<List<Icon>, Void>()
+		{
+			@Override
+			protected List<Icon> doInBackground() throws IOException
+			{
+				List<Icon> frames = new ArrayList<Icon>();
+
+				for (URL source : sources)
+				{
+					for (BufferedImage image : decodeFrames(source))
+						frames.add( new ImageIcon(image) );
+				}
+
+				return frames;
+			}
+
+			@Override
+			protected void done()
+			{
+				if (isCancelled()) return;
+
+				try
+				{
+					List<Icon> frames = get();
+					addIcon( frames.toArray(new Icon[frames.size()]) );
+					component.revalidate();
+					component.repaint();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				catch (ExecutionException e)
+				{
+					//  The Icons added before are still animated
+
+					throw new IllegalStateException("Unable to load the frames", e.getCause());
+				}
+			}
+		};
+
+		worker.execute();
+		return worker;
+	}
+
+	/*
+	 *  Decode every frame of an image. The frames of an animated GIF are
+	 *  composited onto the logical screen, as a GIF frame may only contain
+	 *  the area that changed since the previous frame.
+	 */
+	private static List<BufferedImage> decodeFrames(URL source) throws IOException
+	{
+		List<BufferedImage> frames = new ArrayList<BufferedImage>();
+
+		try (InputStream is = source.openStream();
+			 ImageInputStream iis = ImageIO.createImageInputStream(is))
+		{
+			Iterator<ImageReader> readers = ImageIO.getImageReaders( iis );
+
+			if (! readers.hasNext())
+				throw new IOException("Unsupported image: " + source);
+
+			ImageReader reader = readers.next();
+
+			try
+			{
+				reader.setInput(iis, false);
+				int count = reader.getNumImages(true);
+
+				if (count == 1)
+				{
+					frames.add( reader.read(0) );
+					return frames;
+				}
+
+				BufferedImage canvas = null;
+
+				for (int i = 0; i < count; i++)
+				{
+					BufferedImage frame = reader.read(i);
+					Node root = getNativeTree( reader.getImageMetadata(i) );
+					Node descriptor = getChild(root, "ImageDescriptor");
+					Node control = getChild(root, "GraphicControlExtension");
+					int left = getAttribute(descriptor, "imageLeftPosition", 0);
+					int top = getAttribute(descriptor, "imageTopPosition", 0);
+					String disposal = control == null
+						? "none"
+						: control.getAttributes().getNamedItem("disposalMethod").getNodeValue();
+
+					if (canvas == null)
+					{
+						Node screen = getChild(getNativeTree( reader.getStreamMetadata() ), "LogicalScreenDescriptor");
+						int width = Math.max(left + frame.getWidth(), getAttribute(screen, "logicalScreenWidth", 0));
+						int height = Math.max(top + frame.getHeight(), getAttribute(screen, "logicalScreenHeight", 0));
+						canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+					}
+
+					BufferedImage previous = "restoreToPrevious".equals(disposal) ? copy(canvas) : null;
+
+					Graphics2D g2 = canvas.createGraphics();
+					g2.drawImage(frame, left, top, null);
+					frames.add( copy(canvas) );
+
+					if ("restoreToBackgroundColor".equals(disposal))
+					{
+						g2.setComposite( AlphaComposite.Clear );
+						g2.fillRect(left, top, frame.getWidth(), frame.getHeight());
+					}
+
+					g2.dispose();
+
+					if (previous != null)
+						canvas = previous;
+				}
+			}
+			finally
+			{
+				reader.dispose();
+			}
+		}
+
+		return frames;
+	}
+
+	private static BufferedImage copy(BufferedImage image)
+	{
+		BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = copy.createGraphics();
+		g2.drawImage(image, 0, 0, null);
+		g2.dispose();
+		return copy;
+	}
+
+	private static Node getNativeTree(IIOMetadata metadata)
+	{
+		if (metadata == null) return null;
+
+		String format = metadata.getNativeMetadataFormatName();
+		return format == null ? null : metadata.getAsTree( format );
+	}
+
+	private static Node getChild(Node parent, String name)
+	{
+		if (parent == null) return null;
+
+		for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling())
+		{
+			if (name.equals( child.getNodeName() ))
+				return child;
+		}
+
+		return null;
+	}
+
+	private static int getAttribute(Node node, String name, int defaultValue)
+	{
+		if (node == null) return defaultValue;
+
+		NamedNodeMap attributes = node.getAttributes();
+		Node attribute = attributes == null ? null : attributes.getNamedItem( name );
+
+		return attribute == null ? defaultValue : Integer.parseInt( attribute.getNodeValue() );
 	}
 
 	/**
@@ -392,18 +633,68 @@ public class AnimatedIcon implements Icon, ActionListener, Runnable
 			iconY = y;
 		}
 
-		//  Determine the proper alignment of the Icon, then paint it
+		//  Copy the cell of the current Icon from the sprite sheet
 
-		Icon icon = icons.get( currentIconIndex );
    		int width = getIconWidth();
    		int height = getIconHeight();
 
+		if (spriteSheet
+		&&  width > 0 && height > 0)
+		{
+			BufferedImage sheet = getSpriteSheet(c);
+			int sx = (currentIconIndex % sheetColumns) * width;
+			int sy = (currentIconIndex / sheetColumns) * height;
+			g.drawImage(sheet, x, y, x + width, y + height, sx, sy, sx + width, sy + height, null);
+			return;
+		}
+
+		//  Determine the proper alignment of the Icon, then paint it
+
+		Icon icon = icons.get( currentIconIndex );
+
 		int offsetX = getOffset(width, icon.getIconWidth(), alignmentX);
 		int offsetY = getOffset(height, icon.getIconHeight(), alignmentY);
 
 		icon.paintIcon(c, g, x + offsetX, y + offsetY);
 	}
 
+	/*
+	 *  Paint every Icon, properly aligned, into its own cell of the sprite
+	 *  sheet. The cells are arranged in a square grid to keep the image
+	 *  within the texture size limits of the graphics pipeline.
+	 */
+	private BufferedImage getSpriteSheet(Component c)
+	{
+		if (sheet != null) return sheet;
+
+		int width = getIconWidth();
+		int height = getIconHeight();
+		sheetColumns = (int)Math.ceil( Math.sqrt( icons.size() ) );
+		int rows = (icons.size() + sheetColumns - 1) / sheetColumns;
+
+		GraphicsConfiguration gc = c == null ? null : c.getGraphicsConfiguration();
+
+		sheet = gc == null
+			? new BufferedImage(width * sheetColumns, height * rows, BufferedImage.TYPE_INT_ARGB_PRE)
+			: gc.createCompatibleImage(width * sheetColumns, height * rows, Transparency.TRANSLUCENT);
+
+		Graphics2D g2 = sheet.createGraphics();
+
+		for (int i = 0; i < icons.size(); i++)
+		{
+			Icon icon = icons.get(i);
+			int offsetX = getOffset(width, icon.getIconWidth(), alignmentX);
+			int offsetY = getOffset(height, icon.getIconHeight(), alignmentY);
+			int cellX = (i % sheetColumns) * width;
+			int cellY = (i / sheetColumns) * height;
+			icon.paintIcon(c, g2, cellX + offsetX, cellY + offsetY);
+		}
+
+		g2.dispose();
+
+		return sheet;
+	}
+
 	/*
 	 *  When the icon value is smaller than the maximum value of all icons the
 	 *  icon needs to be aligned appropriately. Calculate the offset to be used
@@ -426,7 +717,6 @@ public class AnimatedIcon implements Icon, ActionListener, Runnable
 		//	Display the next Icon in the animation sequence
 
 		setCurrentIconIndex( getNextIconIndex(currentIconIndex, icons.size()) );
-		component.repaint(iconX, iconY, iconWidth, iconHeight);
 
 		//  Track the number of cycles that have been completed
 
@@ -1,7 +1,15 @@
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.Vector;
+import java.util.function.Function;
 import javax.swing.*;
 /**
  *  This class will use a combo box as the editor for a JTable cell. It is
@@ -11,6 +19,16 @@ import javax.swing.*;
  *
  *  The model to be used by the combo box is determined by the value contained
  *  in the cell of a related column. This value is used to lookup the model.
+ *
+ *  Models can be added up front using the addModel(...) methods, or they can
+ *  be created when they are first needed by a model provider. The provider is
+ *  invoked on a background thread and a placeholder model containing only
+ *  the current value is used until it returns. Models created from a provider
+ *  are kept in a cache of limited size, discarding the least recently used
+ *  model.
+ *
+ *  Models created by the provider are shared: keys with equal lists of items
+ *  use the same immutable model.
  */
 public class ComboBoxTableEditor extends DefaultCellEditor
 {
@@ -18,6 +36,17 @@ public class ComboBoxTableEditor extends DefaultCellEditor
 
 	protected HashMap<Object, ComboBoxModel> models = new HashMap<Object, ComboBoxModel>();
 
+	private Function<Object, ? extends List<?>> modelProvider;
+	private int cacheSize = 100;
+	private Map<Object, ComboBoxModel<Object>> cache = createCache();
+	private Set<Object> loading = new HashSet<Object>();
+	private Map<List<?>, SharedComboBoxModel> sharedModels = new HashMap<List<?>, SharedComboBoxModel>();
+	private Object editingKey;
+
+	//  Cached for a key the model provider has no model for
+
+	private final static ComboBoxModel<Object> NO_MODEL = new DefaultComboBoxModel<Object>();
+
 	/**
 	 *  Create a combo box editor that supports different combo box models.
 	 *
@@ -81,21 +110,146 @@ public class ComboBoxTableEditor extends DefaultCellEditor
 	}
 
 	/*
-	 *  Get the model for the specified row
+	 *  Get the key from the related column for the specified row
 	 */
-	protected ComboBoxModel getModelForRow(JTable table, Object value, int row, int column)
+	private Object getKeyForRow(JTable table, int row, int column)
 	{
 		//  The key column defaults to the previous column in the model
 
 		if (relatedColumn == -1)
 			relatedColumn = table.convertColumnIndexToModel( column ) - 1;
 
+		return table.getModel().getValueAt(row, relatedColumn);
+	}
+
+	/*
+	 *  Get the model for the specified row
+	 */
+	protected ComboBoxModel getModelForRow(JTable table, Object value, int row, int column)
+	{
 		//  Use the value from the related column to do the lookup for the model
 
-		Object key = table.getModel().getValueAt(row, relatedColumn);
+		Object key = getKeyForRow(table, row, column);
+		editingKey = key;
 		ComboBoxModel model = models.get( key );
 
-		return model;
+		if (model != null || modelProvider == null)
+			return model;
+
+		model = cache.get( key );
+
+		//  The provider has no model for the key, so the cell can't be edited
+
+		if (model == NO_MODEL)
+			return null;
+
+		if (model != null)
+			return model;
+
+		//  Create the model in the background and edit the current value
+		//  until it is available
+
+		loadModel( key );
+
+		return new DefaultComboBoxModel<Object>(new Object[] {value});
+	}
+
+	/*
+	 *  Invoke the model provider on a background thread. When the model is
+	 *  created while the cell using it is still being edited, the model of the
+	 *  combo box is replaced.
+	 */
+	private void loadModel(final Object key)
+	{
+		if (! loading.add( key )) return;
+
+		final Function<Object, ? extends List<?>> provider = modelProvider;
+
+		SwingWorker<List<?>, Void> worker = new SwingWorker<List<?>, Void>()
+		{
+			@Override
+			protected List<?> doInBackground()
+			{
+				return provider.apply( key );
+			}
+
+			@Override
+			protected void done()
+			{
+				loading.remove( key );
+
+				List<?> items;
+
+				try
+				{
+					items = get();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+				catch (ExecutionException e)
+				{
+					//  Nothing is cached, so the provider is invoked again the
+					//  next time the key is edited
+
+					if (isEditing( key ))
+						cancelCellEditing();
+
+					throw new IllegalStateException("Unable to create the model for " + key, e.getCause());
+				}
+
+				if (provider != modelProvider) return;
+
+				if (items == null)
+				{
+					cache.put(key, NO_MODEL);
+
+					if (isEditing( key ))
+						cancelCellEditing();
+
+					return;
+				}
+
+				ComboBoxModel<Object> model = getSharedModel( items );
+				ComboBoxModel<Object> previous = cache.put(key, model);
+				releaseModel( previous );
+
+				//  Replace the placeholder model
+
+				if (isEditing( key ))
+					replaceModel( model );
+			}
+		};
+
+		worker.execute();
+	}
+
+	/*
+	 *  Is the placeholder model of the key being edited
+	 */
+	private boolean isEditing(Object key)
+	{
+		return getComponent().isShowing() && isEqual(key, editingKey);
+	}
+
+	/*
+	 *  The models created by the editor contain Objects, so they can be used
+	 *  by the combo box whatever its type
+	 */
+	@SuppressWarnings("unchecked")
+	private void replaceModel(ComboBoxModel<Object> model)
+	{
+		JComboBox<Object> comboBox = (JComboBox<Object>)getComponent();
+		Object value = comboBox.getSelectedItem();
+		comboBox.setModel( model );
+		comboBox.setSelectedItem( value );
+	}
+
+	private static boolean isEqual(Object o1, Object o2)
+	{
+		return o1 == null ? o2 == null : o1.equals( o2 );
 	}
 
 //
@@ -153,4 +307,154 @@ public class ComboBoxTableEditor extends DefaultCellEditor
 	{
 		models.put(key, model);
 	}
+
+	/**
+	 *  Get the model provider
+	 *
+	 *  @return the model provider, or null
+	 */
+	public Function<Object, ? extends List<?>> getModelProvider()
+	{
+		return modelProvider;
+	}
+
+	/**
+	 *  Specify a function that returns the items of the model for a key. It is
+	 *  used for keys that have not been added using an addModel(...) method.
+	 *  The function is invoked on a background thread, so it must not access
+	 *  Swing components. Return null when there is no model for the key.
+	 *
+	 *  @param modelProvider function returning the items for a key, or null
+	 */
+	public void setModelProvider(Function<Object, ? extends List<?>> modelProvider)
+	{
+		this.modelProvider = modelProvider;
+		clearCache();
+	}
+
+	/**
+	 *  Get the cache size
+	 *
+	 *  @return the maximum number of models created by the model provider
+	 *          that are kept
+	 */
+	public int getCacheSize()
+	{
+		return cacheSize;
+	}
+
+	/**
+	 *  Set the maximum number of models created by the model provider that are
+	 *  kept. The least recently used model is discarded when the cache is
+	 *  full.
+	 *
+	 *  @param cacheSize the cache size
+	 */
+	public void setCacheSize(int cacheSize)
+	{
+		this.cacheSize = cacheSize;
+		clearCache();
+	}
+
+	/**
+	 *  Discard all the models created by the model provider
+	 */
+	public void clearCache()
+	{
+		for (ComboBoxModel<Object> model : cache.values())
+			releaseModel( model );
+
+		cache.clear();
+	}
+
+	/*
+	 *  An access ordered map that releases the eldest model when full
+	 */
+	private Map<Object, ComboBoxModel<Object>> createCache()
+	{
+		return new LinkedHashMap<Object, ComboBoxModel<Object>>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, ComboBoxModel<Object>> eldest)
+			{
+				if (size() <= cacheSize) return false;
+
+				releaseModel( eldest.getValue() );
+				return true;
+			}
+		};
+	}
+
+	/*
+	 *  Get the shared model for the items. A new model is only created when no
+	 *  model for an equal List of items exists.
+	 */
+	private ComboBoxModel<Object> getSharedModel(List<?> items)
+	{
+		SharedComboBoxModel model = sharedModels.get( items );
+
+		if (model == null)
+		{
+			model = new SharedComboBoxModel( items );
+			sharedModels.put(model.items, model);
+		}
+
+		model.references++;
+		return model;
+	}
+
+	/*
+	 *  A model is no longer used for a key. Shared models are discarded when
+	 *  they are no longer used for any key.
+	 */
+	private void releaseModel(ComboBoxModel<Object> model)
+	{
+		if (! (model instanceof SharedComboBoxModel)) return;
+
+		SharedComboBoxModel shared = (SharedComboBoxModel)model;
+
+		if (--shared.references == 0)
+			sharedModels.remove( shared.items );
+	}
+
+	/*
+	 *  A model whose items can't be changed, so it can be used for any number
+	 *  of keys. Only the selected item changes, and it is set each time the
+	 *  editor is invoked.
+	 */
+	private static class SharedComboBoxModel extends AbstractListModel<Object>
+		implements ComboBoxModel<Object>
+	{
+		private List<Object> items;
+		private Object selectedItem;
+		private int references;
+
+		public SharedComboBoxModel(List<?> items)
+		{
+			this.items = Collections.unmodifiableList( new ArrayList<Object>(items) );
+		}
+
+		public int getSize()
+		{
+			return items.size();
+		}
+
+		public Object getElementAt(int index)
+		{
+			return items.get( index );
+		}
+
+		public Object getSelectedItem()
+		{
+			return selectedItem;
+		}
+
+		public void setSelectedItem(Object selectedItem)
+		{
+			if (isEqual(selectedItem, this.selectedItem)) return;
+
+			this.selectedItem = selectedItem;
+			fireContentsChanged(this, -1, -1);
+		}
+	}
 }
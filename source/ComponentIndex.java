@@ -0,0 +1,268 @@
+//package darrylbu.util;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * An index of the components below a container in the component hierarchy,
+ * keyed by class. Once installed, the descendant lookups of
+ * <code>SwingUtils</code> for the container, or any container below it, are
+ * answered from the index instead of a search of the hierarchy. A lookup for
+ * the root costs time proportional to the number of matches. A lookup for a
+ * container below the root checks every match below the root, walking up
+ * the parents of each one, so it costs time proportional to the number of
+ * matches below the root times their depth.
+ * <P>
+ * The index is maintained incrementally. A <code>ContainerListener</code> is
+ * added to every container in the hierarchy, so components added or removed
+ * anywhere below the root are indexed or dropped when the change is made.
+ * ContainerEvents are dispatched synchronously, so the index is always
+ * current.
+ * <P>
+ * Components are listed in the order they were added to the hierarchy, not
+ * in the depth first order of a search of the hierarchy.
+ * <P>
+ * The index must only be used on the Event Dispatch Thread.
+ */
+public class ComponentIndex implements ContainerListener {
+
+   private final JComponent root;
+   private final Map<Class<?>, Set<Component>> classes =
+         new HashMap<Class<?>, Set<Component>>();
+   private final Map<Class<?>, List<Class<?>>> assignable =
+         new HashMap<Class<?>, List<Class<?>>>();
+   private int size;
+
+   private ComponentIndex(JComponent root) {
+      this.root = root;
+   }
+
+   /**
+    * Installs an index on <code>root</code>, or returns the index already
+    * installed. The index is kept as a client property of the root.
+    *
+    * @param root the root of the hierarchy to be indexed
+    * @return the index
+    */
+   public static ComponentIndex install(JComponent root) {
+      ComponentIndex index = getIndex(root);
+      if (index == null) {
+         index = new ComponentIndex(root);
+         root.addContainerListener(index);
+         for (Component component : root.getComponents()) {
+            index.add(component);
+         }
+         root.putClientProperty(ComponentIndex.class, index);
+      }
+      return index;
+   }
+
+   /**
+    * Returns the index installed on <code>root</code>.
+    *
+    * @param root the root of an indexed hierarchy
+    * @return the index, or null if no index is installed on the root
+    */
+   public static ComponentIndex getIndex(JComponent root) {
+      return (ComponentIndex) root.getClientProperty(ComponentIndex.class);
+   }
+
+   /**
+    * Returns the index covering <code>container</code>, that is the index
+    * installed on the container or on the nearest of its ancestors.
+    *
+    * @param container the container to be searched
+    * @return the index, or null if the container is not part of an indexed
+    * hierarchy
+    */
+   public static ComponentIndex getIndexFor(Container container) {
+      for (Container c = container; c != null; c = c.getParent()) {
+         if (c instanceof JComponent) {
+            ComponentIndex index = getIndex((JComponent) c);
+            if (index != null) {
+               return index;
+            }
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Removes the index and all its listeners from the hierarchy.
+    */
+   public void uninstall() {
+      root.removeContainerListener(this);
+      for (Component component : root.getComponents()) {
+         remove(component);
+      }
+      root.putClientProperty(ComponentIndex.class, null);
+   }
+
+   /**
+    * Returns the root of the indexed hierarchy.
+    *
+    * @return the root
+    */
+   public JComponent getRoot() {
+      return root;
+   }
+
+   /**
+    * Returns the number of indexed components.
+    *
+    * @return the number of components below the root
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns the indexed components that are instances of class
+    * <code>clazz</code>.
+    *
+    * @param clazz the class of components whose instances are to be found
+    * @return the List of components
+    */
+   public <T extends Component> List<T> getDescendantsOfType(Class<T> clazz) {
+      return getDescendantsOfType(clazz, root);
+   }
+
+   /**
+    * Returns the indexed components below <code>container</code> that are
+    * instances of class <code>clazz</code>. Unless the container is the root,
+    * every instance below the root is checked.
+    *
+    * @param clazz the class of components whose instances are to be found
+    * @param container a container in the indexed hierarchy
+    * @return the List of components
+    */
+   public <T extends Component> List<T> getDescendantsOfType(Class<T> clazz,
+         Container container) {
+      List<T> tList = new ArrayList<T>();
+      for (Class<?> indexed : getAssignableClasses(clazz)) {
+         addDescendants(tList, clazz, classes.get(indexed), container);
+      }
+      return tList;
+   }
+
+   /**
+    * Returns the indexed components of class <code>clazz</code>.
+    *
+    * @param clazz the class of components to be found
+    * @return the List of components
+    */
+   public <T extends Component> List<T> getDescendantsOfClass(Class<T> clazz) {
+      return getDescendantsOfClass(clazz, root);
+   }
+
+   /**
+    * Returns the indexed components below <code>container</code> of class
+    * <code>clazz</code>. Unless the container is the root, every component
+    * of the class below the root is checked.
+    *
+    * @param clazz the class of components to be found
+    * @param container a container in the indexed hierarchy
+    * @return the List of components
+    */
+   public <T extends Component> List<T> getDescendantsOfClass(Class<T> clazz,
+         Container container) {
+      List<T> tList = new ArrayList<T>();
+      addDescendants(tList, clazz, classes.get(clazz), container);
+      return tList;
+   }
+
+   private <T extends Component> void addDescendants(List<T> tList,
+         Class<T> clazz, Set<Component> components, Container container) {
+      if (components == null) {
+         return;
+      }
+      boolean all = container == root;
+      for (Component component : components) {
+         if (all || (component != container
+               && SwingUtilities.isDescendingFrom(component, container))) {
+            tList.add(clazz.cast(component));
+         }
+      }
+   }
+
+   /*
+    * The indexed classes assignable to clazz. Cached until a class that has
+    * not been indexed before is added.
+    */
+   private List<Class<?>> getAssignableClasses(Class<?> clazz) {
+      List<Class<?>> list = assignable.get(clazz);
+      if (list == null) {
+         list = new ArrayList<Class<?>>();
+         for (Class<?> indexed : classes.keySet()) {
+            if (clazz.isAssignableFrom(indexed)) {
+               list.add(indexed);
+            }
+         }
+         assignable.put(clazz, Collections.unmodifiableList(list));
+      }
+      return list;
+   }
+
+   private void add(Component component) {
+      Set<Component> components = classes.get(component.getClass());
+      if (components == null) {
+         components = new LinkedHashSet<Component>();
+         classes.put(component.getClass(), components);
+         assignable.clear();
+      }
+      if (components.add(component)) {
+         size++;
+      }
+      if (component instanceof Container) {
+         Container container = (Container) component;
+         container.removeContainerListener(this);
+         container.addContainerListener(this);
+         for (Component child : container.getComponents()) {
+            add(child);
+         }
+      }
+   }
+
+   private void remove(Component component) {
+      Set<Component> components = classes.get(component.getClass());
+      if (components != null && components.remove(component)) {
+         size--;
+      }
+      if (component instanceof Container) {
+         Container container = (Container) component;
+         container.removeContainerListener(this);
+         for (Component child : container.getComponents()) {
+            remove(child);
+         }
+      }
+   }
+
+   /**
+    * Indexes the added component and all its descendants.
+    *
+    * @param e the event
+    */
+   public void componentAdded(ContainerEvent e) {
+      add(e.getChild());
+   }
+
+   /**
+    * Drops the removed component and all its descendants from the index.
+    *
+    * @param e the event
+    */
+   public void componentRemoved(ContainerEvent e) {
+      remove(e.getChild());
+   }
+}
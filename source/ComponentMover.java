@@ -17,6 +17,10 @@ import javax.swing.SwingUtilities;
  *
  *  Components can be registered when the class is created. Additional
  *  components can be added at any time using the registerComponent() method.
+ *
+ *  By default the component is moved on every mouse drag event. When a
+ *  DragOutline is specified only an outline is moved while dragging and the
+ *  component is moved once, when the mouse is released.
  */
 public class ComponentMover extends MouseAdapter
 {
@@ -25,6 +29,8 @@ public class ComponentMover extends MouseAdapter
 	private Insets edgeInsets = new Insets(0, 0, 0, 0);
 	private boolean changeCursor = true;
 	private boolean autoLayout = false;
+	private DragOutline dragOutline;
+	private boolean outlining;
 
 	private Class destinationClass;
 	private Component destinationComponent;
@@ -96,6 +102,30 @@ public class ComponentMover extends MouseAdapter
 		this.autoLayout = autoLayout;
 	}
 
+	/**
+	 *  Get the drag outline
+	 *
+	 *  @return  the drag outline, or null
+	 */
+	public DragOutline getDragOutline()
+	{
+		return dragOutline;
+	}
+
+	/**
+	 *  Set the drag outline. While dragging, the outline is moved instead of
+	 *  the component. The component is moved, and the parent container laid
+	 *  out when auto layout is used, only once the mouse is released. Windows
+	 *  are always moved directly.
+	 *
+	 *  @param  dragOutline the outline to show while dragging, or null to
+	 *                      move the component on every drag event
+	 */
+	public void setDragOutline(DragOutline dragOutline)
+	{
+		this.dragOutline = dragOutline;
+	}
+
 	/**
 	 *  Get the change cursor property
 	 *
@@ -303,7 +333,31 @@ public class ComponentMover extends MouseAdapter
 
 		//  Adjustments are finished, move the component
 
-		destination.setLocation(locationX, locationY);
+		if (dragOutline != null
+		&&  ! outlining)
+			outlining = dragOutline.start(destination, source.getCursor());
+
+		if (outlining)
+		{
+			Dimension size = destination.getSize();
+			dragOutline.moveTo( new Rectangle(locationX, locationY, size.width, size.height) );
+		}
+		else
+		{
+			destination.setLocation(locationX, locationY);
+			componentMoved( destination );
+		}
+	}
+
+	/*
+	 *  A DragLayout only updates the index entry of the moved component
+	 */
+	private void componentMoved(Component component)
+	{
+		Container parent = component.getParent();
+
+		if (parent != null && parent.getLayout() instanceof DragLayout)
+			((DragLayout)parent.getLayout()).componentMoved( component );
 	}
 
 	/*
@@ -356,6 +410,16 @@ public class ComponentMover extends MouseAdapter
 			((JComponent)destination).setAutoscrolls( autoscrolls );
 		}
 
+		//  Move the component to the last location of the outline
+
+		if (outlining)
+		{
+			outlining = false;
+			Rectangle bounds = dragOutline.stop();
+			destination.setLocation(bounds.x, bounds.y);
+			componentMoved( destination );
+		}
+
 		//  Layout the components on the parent container
 
 		if (autoLayout)
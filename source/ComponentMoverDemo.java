@@ -7,7 +7,7 @@ import javax.swing.border.*;
 import javax.swing.event.*;
 
 public class ComponentMoverDemo extends JPanel
-	implements ChangeListener
+	implements ChangeListener, ItemListener
 {
 	private JSpinner top;
 	private JSpinner bottom;
@@ -127,9 +127,19 @@ public class ComponentMoverDemo extends JPanel
 		insets.add( new JLabel("Right") );
 		main.add( insets );
 
+		JCheckBox outline = new JCheckBox("Drag Outline");
+		outline.addItemListener( this );
+		main.add( outline );
+
 		return main;
 	}
 
+	public void itemStateChanged(ItemEvent e)
+	{
+		JCheckBox checkBox = (JCheckBox)e.getSource();
+		cm2.setDragOutline( checkBox.isSelected() ? new DragOutline(true) : null );
+	}
+
 	public void stateChanged(ChangeEvent e)
 	{
 		Dimension snapDimension = new Dimension((Integer)snapX.getValue(), (Integer)snapY.getValue());
@@ -7,6 +7,10 @@ import javax.swing.SwingUtilities;
 /**
  *  The ComponentResizer allows you to resize a component by dragging a border
  *  of the component.
+ *
+ *  By default the component is resized on every mouse drag event. When a
+ *  DragOutline is specified only an outline is resized while dragging and the
+ *  component is resized once, when the mouse is released.
  */
 public class ComponentResizer extends MouseAdapter
 {
@@ -41,6 +45,8 @@ public class ComponentResizer extends MouseAdapter
 	private Point pressed;
 	private boolean autoscrolls;
 	private boolean autoLayout;
+	private DragOutline dragOutline;
+	private boolean outlining;
 
 	private Dimension minimumSize = MINIMUM_SIZE;
 	private Dimension maximumSize = MAXIMUM_SIZE;
@@ -116,6 +122,30 @@ public class ComponentResizer extends MouseAdapter
 		this.autoLayout = autoLayout;
 	}
 
+	/**
+	 *  Get the drag outline
+	 *
+	 *  @return  the drag outline, or null
+	 */
+	public DragOutline getDragOutline()
+	{
+		return dragOutline;
+	}
+
+	/**
+	 *  Set the drag outline. While dragging, the outline is resized instead of
+	 *  the component. The component is resized, and the parent container laid
+	 *  out when auto layout is used, only once the mouse is released. Windows
+	 *  are always resized directly.
+	 *
+	 *  @param  dragOutline the outline to show while dragging, or null to
+	 *                      resize the component on every drag event
+	 */
+	public void setDragOutline(DragOutline dragOutline)
+	{
+		this.dragOutline = dragOutline;
+	}
+
 	/**
 	 *  Get the drag insets
 	 *
@@ -354,6 +384,16 @@ public class ComponentResizer extends MouseAdapter
 			((JComponent)source).setAutoscrolls( autoscrolls );
 		}
 
+		//  Resize the component to the last bounds of the outline
+
+		if (outlining)
+		{
+			outlining = false;
+			source.setBounds( dragOutline.stop() );
+			source.validate();
+			componentMoved( source );
+		}
+
 		if (autoLayout)
 		{
 			Component parent = source.getParent();
@@ -389,6 +429,10 @@ public class ComponentResizer extends MouseAdapter
 		Point dragged = e.getPoint();
 		SwingUtilities.convertPointToScreen(dragged, source);
 
+		if (dragOutline != null
+		&&  ! outlining)
+			outlining = dragOutline.start(source, source.getCursor());
+
 		changeBounds(source, direction, bounds, pressed, dragged);
 	}
 
@@ -445,8 +489,25 @@ public class ComponentResizer extends MouseAdapter
 			height += drag;
 		}
 
-		source.setBounds(x, y, width, height);
-		source.validate();
+		if (outlining)
+			dragOutline.moveTo( new Rectangle(x, y, width, height) );
+		else
+		{
+			source.setBounds(x, y, width, height);
+			source.validate();
+			componentMoved( source );
+		}
+	}
+
+	/*
+	 *  A DragLayout only updates the index entry of the resized component
+	 */
+	private void componentMoved(Component component)
+	{
+		Container parent = component.getParent();
+
+		if (parent != null && parent.getLayout() instanceof DragLayout)
+			((DragLayout)parent.getLayout()).componentMoved( component );
 	}
 
 	/*
@@ -5,8 +5,6 @@
 
 //import darrylbu.util.SwingUtils;
 import java.io.Serializable;
-import java.util.List;
-import java.util.Map;
 import javax.swing.JComponent;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
@@ -17,6 +15,10 @@ import javax.swing.tree.DefaultTreeModel;
  * static method to facilitate adding such a hierarchy at a specified node
  * in an existing <code>DefaultTreeModel</code>.
  * <P>
+ * All nodes are created when the model is constructed. For very large GUIs
+ * use a {@link LazyComponentTreeModel}, which creates nodes on expansion and
+ * follows changes to the hierarchy.
+ * <P>
  * Extends {@link DefaultTreeModel}.
  * 
  * @version 1.0 11/15/08
@@ -101,17 +103,12 @@ public class ComponentTreeModel extends DefaultTreeModel
     */ 
    private static void addNodes(JComponent container, DefaultTreeModel model,
          DefaultMutableTreeNode root, boolean nested) {
-      Map<JComponent, List<JComponent>> componentMap = SwingUtils.getComponentMap(
-            container, true);
-      List<JComponent> components = componentMap.get(container);
-      if (components != null) {
-         for (JComponent component : componentMap.get(container)) {
-            DefaultMutableTreeNode branch = new DefaultMutableTreeNode(component);
-            branch.setUserObject(component);
-            root.add(branch);
-            if (nested) {
-               addNodes(component, model, branch, true);
-            }
+      for (JComponent component : SwingUtils.getDescendantsOfType(
+            JComponent.class, container, false)) {
+         DefaultMutableTreeNode branch = new DefaultMutableTreeNode(component);
+         root.add(branch);
+         if (nested) {
+            addNodes(component, model, branch, true);
          }
       }
    }
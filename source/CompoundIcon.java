@@ -15,6 +15,10 @@ import javax.swing.*;
  * <li>Z-Axis (stacked)
  * </ul>
  *
+ *  A CompoundIcon can be flattened. The nested Icons are then painted once
+ *  into a cached image and hit testing is done using a spatial index of the
+ *  bounds of every nested Icon, instead of walking the tree of Icons on every
+ *  paint. When a nested Icon is changed you must invoke invalidate().
  */
 public class CompoundIcon implements Icon
 {
@@ -35,6 +39,9 @@ public class CompoundIcon implements Icon
 	private Rectangle[] bounds;
 	private HashMap<Component, Point> iconOffset = new HashMap<Component, Point>();
 
+	private boolean flattened;
+	private Snapshot snapshot;
+
     private Axis axis;
 
 	private int gap;
@@ -154,6 +161,42 @@ public class CompoundIcon implements Icon
 		return alignmentY;
 	}
 
+	/**
+	 *  Is this CompoundIcon flattened?
+	 *
+	 *  @return true when the nested Icons are painted from a cached image
+	 */
+	public boolean isFlattened()
+	{
+		return flattened;
+	}
+
+	/**
+	 *  Flatten the tree of nested Icons. The Icons will be painted once into
+	 *  an image held by the shared IconRenditionCache and each paint becomes
+	 *  a single drawImage. When the tree contains an AnimatedIcon the Icons
+	 *  are painted directly, but the tree is still not walked on every paint.
+	 *
+	 *  @param flattened  true to flatten the nested Icons, false otherwise
+	 */
+	public void setFlattened(boolean flattened)
+	{
+		this.flattened = flattened;
+		invalidate();
+	}
+
+	/**
+	 *  Discard the flattened snapshot of the nested Icons. This must be
+	 *  invoked when an Icon contained in this CompoundIcon, or in a nested
+	 *  CompoundIcon, has changed. The snapshot is recreated the next time
+	 *  the Icon is painted.
+	 */
+	public void invalidate()
+	{
+		snapshot = null;
+		IconRenditionCache.getSharedInstance().invalidate( this );
+	}
+
 	/**
 	 *  Get the number of Icons contained in this CompoundIcon.
 	 *
@@ -199,6 +242,9 @@ public class CompoundIcon implements Icon
 			point.y -= offset.y;
 		}
 
+		if (flattened)
+			return getSnapshot().getIconInfoAtPoint(point);
+
 		//  Start searching Icon bound from the last Icon painted in case
 		//  Icons overlap one another.
 
@@ -298,6 +344,126 @@ public class CompoundIcon implements Icon
 			return point;
 		}
 	}
+	/*
+	 *  The flattened tree of Icons. Every Icon, other than a CompoundIcon, is
+	 *  stored in paint order along with its bounds relative to the flattened
+	 *  CompoundIcon and relative to the CompoundIcon that contains it. The
+	 *  absolute bounds are indexed in a grid of fixed size cells so hit
+	 *  testing only needs to check the Icons that overlap a single cell.
+	 */
+	private static class Snapshot
+	{
+		private final static int CELL_SIZE = 32;
+
+		private List<Icon> leafIcons = new ArrayList<Icon>();
+		private List<Rectangle> absoluteBounds = new ArrayList<Rectangle>();
+		private List<Rectangle> localBounds = new ArrayList<Rectangle>();
+		private int[][] cells;
+		private int columns;
+		private int width;
+		private int height;
+		private boolean animated;
+
+		Snapshot(CompoundIcon root)
+		{
+			width = root.getIconWidth();
+			height = root.getIconHeight();
+			addIcons(root, 0, 0);
+			buildIndex();
+		}
+
+		private void addIcons(CompoundIcon compound, int offsetX, int offsetY)
+		{
+			for (int i = 0; i < compound.icons.length; i++)
+			{
+				Icon icon = compound.icons[i];
+				Rectangle r = compound.bounds[i];
+
+				if (icon instanceof CompoundIcon)
+				{
+					addIcons((CompoundIcon)icon, offsetX + r.x, offsetY + r.y);
+				}
+				else
+				{
+					leafIcons.add( icon );
+					localBounds.add( r );
+					absoluteBounds.add( new Rectangle(offsetX + r.x, offsetY + r.y, r.width, r.height) );
+					animated |= icon instanceof AnimatedIcon;
+				}
+			}
+		}
+
+		private void buildIndex()
+		{
+			columns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+			int rows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+			List<List<Integer>> buckets = new ArrayList<List<Integer>>();
+
+			for (int i = 0; i < columns * rows; i++)
+				buckets.add( new ArrayList<Integer>() );
+
+			for (int i = 0; i < absoluteBounds.size(); i++)
+			{
+				Rectangle r = absoluteBounds.get(i);
+
+				if (r.isEmpty()) continue;
+
+				int firstColumn = Math.max(0, r.x / CELL_SIZE);
+				int lastColumn = Math.min(columns - 1, (r.x + r.width - 1) / CELL_SIZE);
+				int firstRow = Math.max(0, r.y / CELL_SIZE);
+				int lastRow = Math.min(rows - 1, (r.y + r.height - 1) / CELL_SIZE);
+
+				for (int row = firstRow; row <= lastRow; row++)
+					for (int column = firstColumn; column <= lastColumn; column++)
+						buckets.get(row * columns + column).add( i );
+			}
+
+			cells = new int[buckets.size()][];
+
+			for (int i = 0; i < cells.length; i++)
+			{
+				List<Integer> bucket = buckets.get(i);
+				cells[i] = new int[bucket.size()];
+
+				for (int j = 0; j < cells[i].length; j++)
+					cells[i][j] = bucket.get(j);
+			}
+		}
+
+		void paintIcons(Component c, Graphics g, int x, int y)
+		{
+			for (int i = 0; i < leafIcons.size(); i++)
+			{
+				Rectangle r = absoluteBounds.get(i);
+				leafIcons.get(i).paintIcon(c, g, r.x + x, r.y + y);
+			}
+		}
+
+		IconInfo getIconInfoAtPoint(Point point)
+		{
+			if (point.x < 0 || point.x >= width
+			||  point.y < 0 || point.y >= height)
+				return null;
+
+			int[] cell = cells[(point.y / CELL_SIZE) * columns + point.x / CELL_SIZE];
+
+			//  Search from the last Icon painted in case Icons overlap
+
+			for (int i = cell.length - 1; i >= 0; i--)
+			{
+				Rectangle r = absoluteBounds.get( cell[i] );
+
+				if (r.contains(point))
+				{
+					Point p = new Point(point.x - r.x, point.y - r.y);
+					return new IconInfo(leafIcons.get( cell[i] ), localBounds.get( cell[i] ), p);
+				}
+			}
+
+			return null;
+		}
+	}
+
 //
 //  Implement the Icon Interface
 //
@@ -374,6 +540,12 @@ public class CompoundIcon implements Icon
 
 		iconOffset.put(c, new Point(x, y));
 
+		if (flattened)
+		{
+			paintSnapshot(c, g, x, y);
+			return;
+		}
+
 		for (int i = 0; i < icons.length; i++)
 		{
 			Icon icon = icons[i];
@@ -382,6 +554,30 @@ public class CompoundIcon implements Icon
 		}
     }
 
+	/*
+	 *  Paint the flattened Icons, from the cached image when possible
+	 */
+	private void paintSnapshot(Component c, Graphics g, int x, int y)
+	{
+		Snapshot snapshot = getSnapshot();
+
+		if (! snapshot.animated
+		&&  IconRenditionCache.getSharedInstance().paintIcon(
+				this, null, snapshot.width, snapshot.height, c, g, x, y,
+				(component, g2) -> snapshot.paintIcons(component, g2, 0, 0)))
+			return;
+
+		snapshot.paintIcons(c, g, x, y);
+	}
+
+	private Snapshot getSnapshot()
+	{
+		if (snapshot == null)
+			snapshot = new Snapshot(this);
+
+		return snapshot;
+	}
+
 	/*
 	 *	Determine the bounds of each Icon contained within the CompoundIcon
 	 */
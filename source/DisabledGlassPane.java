@@ -1,5 +1,7 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.*;
 import java.util.*;
 import javax.swing.*;
 import javax.swing.border.*;
@@ -10,6 +12,13 @@ import javax.swing.border.*;
  *
  *  The background color of the glass pane should use a color with an
  *  alpha value to create the disabled look.
+ *
+ *  In snapshot mode an image of the layered pane is captured, at the
+ *  resolution of the screen, the first time the glass pane is painted after
+ *  it is activated. The glass pane is then opaque and paints the image over
+ *  the layered pane, so repainting the glass pane doesn't paint the
+ *  components below it. The image can optionally be filtered, see
+ *  DisabledPanel.
  */
 public class DisabledGlassPane extends JComponent
 	implements KeyListener
@@ -17,6 +26,13 @@ public class DisabledGlassPane extends JComponent
 	private final static Border MESSAGE_BORDER = new EmptyBorder(10, 10, 10, 10);
 	private JLabel message = new JLabel();
 
+	private boolean snapshotEnabled;
+	private BufferedImageOp snapshotFilter;
+	private BufferedImage snapshot;
+	private double snapshotScaleX;
+	private double snapshotScaleY;
+	private JComponent covered;
+
 	public DisabledGlassPane()
 	{
 		//  Set glass pane properties
@@ -50,10 +66,91 @@ public class DisabledGlassPane extends JComponent
 	@Override
 	protected void paintComponent(Graphics g)
 	{
+		if (covered != null)
+		{
+			paintSnapshot( (Graphics2D)g );
+		}
+
 		g.setColor( getBackground() );
 		g.fillRect(0, 0, getSize().width, getSize().height);
 	}
 
+	/*
+	 *  Paint the snapshot of the covered layered pane. The snapshot is
+	 *  captured again when the scale of the Graphics or the size of the
+	 *  layered pane has changed.
+	 */
+	private void paintSnapshot(Graphics2D g2)
+	{
+		AffineTransform transform = g2.getTransform();
+		double scaleX = Math.abs( transform.getScaleX() );
+		double scaleY = Math.abs( transform.getScaleY() );
+		int width = covered.getWidth();
+		int height = covered.getHeight();
+
+		if (snapshot == null
+		||  scaleX != snapshotScaleX
+		||  scaleY != snapshotScaleY
+		||  snapshot.getWidth() != (int)Math.ceil(width * scaleX)
+		||  snapshot.getHeight() != (int)Math.ceil(height * scaleY))
+		{
+			snapshot = createSnapshot(scaleX, scaleY);
+			snapshotScaleX = scaleX;
+			snapshotScaleY = scaleY;
+		}
+
+		//  The glass pane is opaque while the snapshot is painted
+
+		Color background = getRootPane() == null ? null : getRootPane().getBackground();
+		g2.setColor( background == null ? Color.WHITE : new Color(background.getRGB()) );
+		g2.fillRect(0, 0, getWidth(), getHeight());
+
+		if (snapshot != null)
+		{
+			Point p = SwingUtilities.convertPoint(covered.getParent(), covered.getLocation(), this);
+			g2.drawImage(snapshot, p.x, p.y, width, height, null);
+		}
+	}
+
+	/*
+	 *  Print the covered layered pane into an image with one pixel for each
+	 *  device pixel
+	 */
+	private BufferedImage createSnapshot(double scaleX, double scaleY)
+	{
+		int width = (int)Math.ceil(covered.getWidth() * scaleX);
+		int height = (int)Math.ceil(covered.getHeight() * scaleY);
+
+		if (width == 0 || height == 0) return null;
+
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2 = image.createGraphics();
+		g2.scale(scaleX, scaleY);
+
+		//  Paint a background for a non-opaque layered pane, otherwise the
+		//  background will be black
+
+		if (! covered.isOpaque())
+		{
+			g2.setColor( covered.getParent().getBackground() );
+			g2.fillRect(0, 0, covered.getWidth(), covered.getHeight());
+		}
+
+		covered.print( g2 );
+		g2.dispose();
+
+		return snapshotFilter == null ? image : snapshotFilter.filter(image, null);
+	}
+
+	/*
+	 *  The glass pane covers the layered pane with the snapshot
+	 */
+	@Override
+	public boolean isOpaque()
+	{
+		return covered != null;
+	}
+
 	/*
 	 *  The	background color of the message label will be the same as the
 	 *  background of the glass pane without the alpha value
@@ -66,6 +163,47 @@ public class DisabledGlassPane extends JComponent
 		Color messageBackground = new Color(background.getRGB());
 		message.setBackground( messageBackground );
 	}
+	/**
+	 *  Get the snapshot enabled property
+	 *
+	 *  @return the snapshot enabled property
+	 */
+	public boolean isSnapshotEnabled()
+	{
+		return snapshotEnabled;
+	}
+
+	/**
+	 *  When enabled, an image of the layered pane is captured when the glass
+	 *  pane is activated and is painted over the layered pane until the glass
+	 *  pane is deactivated.
+	 *
+	 *  @param snapshotEnabled true to paint a snapshot while active
+	 */
+	public void setSnapshotEnabled(boolean snapshotEnabled)
+	{
+		this.snapshotEnabled = snapshotEnabled;
+	}
+
+	/**
+	 *  Get the snapshot filter
+	 *
+	 *  @return the filter applied to the snapshot, or null
+	 */
+	public BufferedImageOp getSnapshotFilter()
+	{
+		return snapshotFilter;
+	}
+
+	/**
+	 *  Set a filter to be applied to the snapshot once, when it is captured.
+	 *
+	 *  @param snapshotFilter the filter, or null to paint the image unchanged
+	 */
+	public void setSnapshotFilter(BufferedImageOp snapshotFilter)
+	{
+		this.snapshotFilter = snapshotFilter;
+	}
 //
 //  Implement the KeyListener to consume events
 //
@@ -97,6 +235,17 @@ public class DisabledGlassPane extends JComponent
 		else
 			message.setVisible( false );
 
+		//  Cover the live components with an image of them, captured when the
+		//  glass pane is painted
+
+		JRootPane rootPane = getRootPane();
+
+		if (snapshotEnabled && rootPane != null && covered == null)
+		{
+			covered = rootPane.getLayeredPane();
+			snapshot = null;
+		}
+
 		setVisible( true );
 		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 		requestFocusInWindow();
@@ -109,5 +258,8 @@ public class DisabledGlassPane extends JComponent
 	{
 		setCursor(null);
 		setVisible( false );
+
+		covered = null;
+		snapshot = null;
 	}
 }
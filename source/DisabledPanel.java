@@ -1,6 +1,9 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.*;
+import java.awt.color.ColorSpace;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -34,6 +37,12 @@ import javax.swing.border.*;
  *  b) enable ( Container ) - to enable all Components disabled by the
  *     disable() method. That is any component that was disabled prior to using
  *     the disable() method method will remain disabled.
+ *
+ *  In snapshot mode an image of the Container is captured when the panel is
+ *  disabled. Only the image and the glass pane are painted until the panel is
+ *  enabled again, so animated or frequently changing components on the panel
+ *  no longer cause the components underneath the glass pane to be repainted.
+ *  The image can optionally be filtered, for example to gray or blur it.
  */
 public class DisabledPanel extends JPanel
 {
@@ -41,7 +50,23 @@ public class DisabledPanel extends JPanel
 
 	private static Map<Container, List<JComponent>> containers = new HashMap<Container, List<JComponent>>();
 
+	/**
+	 *  A snapshot filter that converts the image to gray scale
+	 */
+	public final static BufferedImageOp GRAY_FILTER =
+		new ColorConvertOp(ColorSpace.getInstance(ColorSpace.CS_GRAY), null);
+
+	/**
+	 *  A snapshot filter that blurs the image
+	 */
+	public final static BufferedImageOp BLUR_FILTER = createBlurFilter( 5 );
+
 	private	JComponent glassPane;
+	private Container container;
+
+	private boolean snapshotEnabled;
+	private BufferedImageOp snapshotFilter;
+	private BufferedImage snapshot;
 
 	/**
 	 *	Create a DisablePanel for the specified Container. The disabled color
@@ -64,6 +89,7 @@ public class DisabledPanel extends JPanel
 	 */
 	public DisabledPanel(Container container, Color disabledColor)
 	{
+		this.container = container;
 		setLayout( new OverlapLayout() );
 		add( container );
 
@@ -119,6 +145,49 @@ public class DisabledPanel extends JPanel
 		this.glassPane = glassPane;
 	}
 
+	/**
+	 *  Get the snapshot enabled property
+	 *
+	 *  @return the snapshot enabled property
+	 */
+	public boolean isSnapshotEnabled()
+	{
+		return snapshotEnabled;
+	}
+
+	/**
+	 *  When enabled, an image of the Container is captured when the panel is
+	 *  disabled and is painted instead of the Container until the panel is
+	 *  enabled. The Container must be a JComponent.
+	 *
+	 *  @param snapshotEnabled true to paint a snapshot while disabled
+	 */
+	public void setSnapshotEnabled(boolean snapshotEnabled)
+	{
+		this.snapshotEnabled = snapshotEnabled;
+	}
+
+	/**
+	 *  Get the snapshot filter
+	 *
+	 *  @return the filter applied to the snapshot, or null
+	 */
+	public BufferedImageOp getSnapshotFilter()
+	{
+		return snapshotFilter;
+	}
+
+	/**
+	 *  Set a filter to be applied to the snapshot once, when it is captured.
+	 *  GRAY_FILTER and BLUR_FILTER can be used, or any other BufferedImageOp.
+	 *
+	 *  @param snapshotFilter the filter, or null to paint the image unchanged
+	 */
+	public void setSnapshotFilter(BufferedImageOp snapshotFilter)
+	{
+		this.snapshotFilter = snapshotFilter;
+	}
+
 	/**
 	 *	Change the enabled state of the panel.
 	 */
@@ -126,6 +195,7 @@ public class DisabledPanel extends JPanel
 	public void setEnabled(boolean enabled)
 	{
 		super.setEnabled(enabled);
+		snapshot = null;
 
 		if (enabled)
 		{
@@ -135,12 +205,44 @@ public class DisabledPanel extends JPanel
 		}
 		else
 		{
+			if (snapshotEnabled)
+				snapshot = createSnapshot(container, snapshotFilter);
+
 			glassPane.setVisible(true);
 			setFocusCycleRoot(true);  // remove from focus cycle
 			queue.addPanel(this);
 		}
 	}
 
+	/**
+	 *  While a snapshot is shown the Container is not painted. Any repaint
+	 *  requested by a component on the Container is painted from the snapshot
+	 *  since the painting always starts at this panel (see
+	 *  isOptimizedDrawingEnabled()).
+	 */
+	@Override
+	protected void paintChildren(Graphics g)
+	{
+		//  The panel was resized while disabled, so capture a new snapshot
+
+		if (snapshot != null
+		&&  (snapshot.getWidth() != container.getWidth()
+		||   snapshot.getHeight() != container.getHeight()))
+			snapshot = createSnapshot(container, snapshotFilter);
+
+		if (snapshot == null || isEnabled())
+		{
+			super.paintChildren( g );
+			return;
+		}
+
+		g.drawImage(snapshot, container.getX(), container.getY(), null);
+
+		Graphics cg = g.create(glassPane.getX(), glassPane.getY(), glassPane.getWidth(), glassPane.getHeight());
+		glassPane.paint( cg );
+		cg.dispose();
+	}
+
 	/**
 	 *  Because we use layered panels this should be disabled.
 	 */
@@ -195,6 +297,38 @@ public class DisabledPanel extends JPanel
 		}
 	}
 
+	/**
+	 *  Capture an image of the component, using ScreenImage, and apply the
+	 *  filter to it.
+	 *
+	 *  @param component the component to be captured
+	 *  @param filter    a filter to apply to the image, or null
+	 *  @return the image, or null when the component is not a JComponent or
+	 *          has not been sized yet
+	 */
+	static BufferedImage createSnapshot(Component component, BufferedImageOp filter)
+	{
+		if (! (component instanceof JComponent)
+		||  component.getWidth() == 0
+		||  component.getHeight() == 0)
+			return null;
+
+		BufferedImage image = ScreenImage.createImage( (JComponent)component );
+
+		return filter == null ? image : filter.filter(image, null);
+	}
+
+	/*
+	 *  A box blur of the given size
+	 */
+	private static BufferedImageOp createBlurFilter(int size)
+	{
+		float[] matrix = new float[size * size];
+		Arrays.fill(matrix, 1.0f / matrix.length);
+
+		return new ConvolveOp(new Kernel(size, size, matrix), ConvolveOp.EDGE_NO_OP, null);
+	}
+
 	/**
 	 *  A simple "glass pane" that has two functions:
 	 *
@@ -240,6 +374,11 @@ public class DisabledPanel extends JPanel
 	 *  overriden to check each KeyEvent. If the KeyEvent is for a Component
 	 *  on a DisablePanel then the event is ignored, otherwise it is
 	 *  dispatched for normal processing.
+	 *
+	 *  The KeyStrokes of all the disabled panels on a Window are combined
+	 *  into a single Set when a panel is added or removed, so checking a
+	 *  KeyEvent only requires a lookup of the Window and the KeyStroke. The
+	 *  queue is only installed while at least one panel is disabled.
 	 */
 	static class DisabledEventQueue extends EventQueue
 		implements WindowListener
@@ -247,6 +386,14 @@ public class DisabledPanel extends JPanel
 		private Map<DisabledPanel, Set<KeyStroke>> panels =
 			new HashMap<DisabledPanel, Set<KeyStroke>>();
 
+		private Map<DisabledPanel, Window> panelWindows =
+			new HashMap<DisabledPanel, Window>();
+
+		private Map<Window, Set<KeyStroke>> windows =
+			new HashMap<Window, Set<KeyStroke>>();
+
+		private boolean pushed;
+
 		/**
 		 *  Check if any component on the DisabledPanel is using Key Bindings.
 		 *  If so, then track the bindings and use a custom EventQueue to
@@ -254,6 +401,13 @@ public class DisabledPanel extends JPanel
 		 */
 		public void addPanel(DisabledPanel panel)
 		{
+			//  The KeyStrokes are intercepted by Window so a panel that is
+			//  not on a Window has nothing to intercept
+
+			Window window = SwingUtilities.windowForComponent( panel );
+
+			if (window == null) return;
+
 			//  Get all the KeyStrokes used by all the components on the panel
 
 			Set<KeyStroke> keyStrokes = getKeyStrokes( panel );
@@ -261,19 +415,24 @@ public class DisabledPanel extends JPanel
 			if (keyStrokes.size() == 0) return;
 
 			panels.put(panel, keyStrokes);
+			Window previous = panelWindows.put(panel, window);
+			updateWindow( window );
+
+			if (previous != null && previous != window)
+				updateWindow( previous );
 
 			//  More than one panel can be disabled but we only need to install
 			//  the custom EventQueue when the first panel is disabled.
 
-			EventQueue current = Toolkit.getDefaultToolkit().getSystemEventQueue();
-
-			if (current != this)
-				current.push(queue);
+			if (! pushed)
+			{
+				Toolkit.getDefaultToolkit().getSystemEventQueue().push(this);
+				pushed = true;
+			}
 
 			//  We need to track when a Window is closed so we can remove
 			//  the references for all the DisabledPanels on that window.
 
-			Window window = SwingUtilities.windowForComponent( panel );
 			window.removeWindowListener( this );
 			window.addWindowListener( this );
 		}
@@ -307,6 +466,35 @@ public class DisabledPanel extends JPanel
 			return keyStrokes;
 		}
 
+		/**
+		 *  Combine the KeyStrokes of all the disabled panels on the Window
+		 */
+		private Set<KeyStroke> getKeyStrokes(Window window)
+		{
+			Set<KeyStroke> keyStrokes = new HashSet<KeyStroke>();
+
+			for (Map.Entry<DisabledPanel, Window> entry: panelWindows.entrySet())
+			{
+				if (entry.getValue() == window)
+					keyStrokes.addAll( panels.get(entry.getKey()) );
+			}
+
+			return keyStrokes;
+		}
+
+		/**
+		 *  Rebuild the KeyStrokes intercepted for the Window
+		 */
+		private void updateWindow(Window window)
+		{
+			Set<KeyStroke> keyStrokes = getKeyStrokes( window );
+
+			if (keyStrokes.size() == 0)
+				windows.remove( window );
+			else
+				windows.put(window, keyStrokes);
+		}
+
 		/**
 		 *	The panel is no longer disabled so we no longer need to intercept
 		 *  its KeyStrokes. Restore the default EventQueue when all panels
@@ -314,9 +502,15 @@ public class DisabledPanel extends JPanel
 		 */
 		public void removePanel(DisabledPanel panel)
 		{
-			if (panels.remove(panel) != null
-			&&  panels.size() == 0)
+			if (panels.remove(panel) == null) return;
+
+			updateWindow( panelWindows.remove(panel) );
+
+			if (panels.size() == 0 && pushed)
+			{
+				pushed = false;
 				pop();
+			}
 		}
 
 		/**
@@ -331,22 +525,16 @@ public class DisabledPanel extends JPanel
 			||  event.getID() == KeyEvent.KEY_PRESSED
 			||  event.getID() == KeyEvent.KEY_RELEASED)
 			{
-				KeyEvent keyEvent = (KeyEvent)event;
-				KeyStroke keyStroke = KeyStroke.getKeyStrokeForEvent(keyEvent);
-
 				//  When using Key Bindings, the source of the KeyEvent will be
-				//  the Window. Check each panel belonging to the source Window.
-
-				for (DisabledPanel panel: panels.keySet())
-				{
-					Window panelWindow = SwingUtilities.windowForComponent(panel);
+				//  the Window. A binding was found so just return without
+				//  dispatching it.
 
-					//  A binding was found so just return without dispatching it.
+				KeyEvent keyEvent = (KeyEvent)event;
+				Set<KeyStroke> keyStrokes = windows.get( keyEvent.getComponent() );
 
-					if (panelWindow == keyEvent.getComponent()
-					&&  searchForKeyBinding(panel, keyStroke))
-						return;
-				}
+				if (keyStrokes != null
+				&&  keyStrokes.contains( KeyStroke.getKeyStrokeForEvent(keyEvent) ))
+					return;
 			}
 
 			//  Dispatch normally
@@ -354,16 +542,6 @@ public class DisabledPanel extends JPanel
 			super.dispatchEvent(event);
 		}
 
-		/**
-		 *  Check if the KeyStroke is for a Component on the DisablePanel
-		 */
-		private boolean searchForKeyBinding(DisabledPanel panel, KeyStroke keyStroke)
-		{
-			Set<KeyStroke> keyStrokes = panels.get(panel);
-
-			return keyStrokes.contains( keyStroke );
-		}
-
 		//  Implement WindowListener interface
 
 		/**
@@ -379,13 +557,11 @@ public class DisabledPanel extends JPanel
 
 			//  Create a List of DisabledPanels to remove
 
-			for (DisabledPanel panel: panels.keySet())
+			for (Map.Entry<DisabledPanel, Window> entry: panelWindows.entrySet())
 			{
-   				Window panelWindow = SwingUtilities.windowForComponent(panel);
-
-				if (panelWindow == window)
+				if (entry.getValue() == window)
 				{
-					panelsToRemove.add( panel );
+					panelsToRemove.add( entry.getKey() );
 				}
 			}
 
@@ -1,4 +1,13 @@
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import javax.swing.*;
 
 /**
@@ -17,10 +26,26 @@ import javax.swing.*;
  *  That is the x/y coordinate must be withing the Insets of the Container. If
  *  any component is outside the bounds, then the location of all components
  *  will be adjusted by the same amount.
+ *
+ *  For containers with many components an indexed mode is available. The
+ *  bounds of each component are kept in a spatial index, so the extent of the
+ *  components is available without a rescan of the container. Components
+ *  added, removed, moved, resized, shown or hidden only update their own
+ *  entries in the index, in O(log n), and laying out the container only
+ *  changes the bounds of those components. All components are only changed
+ *  when they must be shifted back into the container. A change to the
+ *  preferred size of a component doesn't move or resize it, so it must be
+ *  reported with componentMoved(...) when the preferred size is used. The
+ *  index can also be used to find the components in an area of the
+ *  container, see getComponentsIn(...).
  */
-public class DragLayout implements LayoutManager, java.io.Serializable
+public class DragLayout implements LayoutManager2, java.io.Serializable
 {
 	private boolean usePreferredSize;
+	private boolean indexed;
+
+	private transient BoundsIndex index;
+	private transient ComponentAdapter tracker;
 
 	/**
 	 *  Convenience constructor
@@ -51,6 +76,7 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 	public void setUsePreferredSize(boolean usePreferredSize)
 	{
 		this.usePreferredSize = usePreferredSize;
+		index = null;
 	}
 
 	/**
@@ -63,6 +89,133 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 		return usePreferredSize;
 	}
 
+	/**
+	 *  Set the indexed property
+	 *
+	 *  @param indexed when true, the bounds of the components are kept in a
+	 *                 spatial index that is updated incrementally. When false
+	 *                 (the default) all components are examined every time
+	 *                 the layout is calculated.
+	 */
+	public void setIndexed(boolean indexed)
+	{
+		this.indexed = indexed;
+		index = null;
+	}
+
+	/**
+	 *  Get the indexed property
+	 *
+	 *@return the indexed property
+	 */
+	public boolean isIndexed()
+	{
+		return indexed;
+	}
+
+	/**
+	 *  Get the visible components whose bounds intersect the area. In indexed
+	 *  mode only the components in the grid cells covering the area are
+	 *  examined.
+	 *
+	 *  @param  parent the container using this layout
+	 *  @param  area   the area of the container to search
+	 *  @return the components intersecting the area, in container order when
+	 *          not indexed
+	 */
+	public List<Component> getComponentsIn(Container parent, Rectangle area)
+	{
+		synchronized (parent.getTreeLock())
+		{
+			if (indexed)
+				return getIndex(parent).getComponentsIn( area );
+
+			List<Component> components = new ArrayList<Component>();
+
+			for (Component component: parent.getComponents())
+			{
+				if (component.isVisible()
+				&&  component.getBounds().intersects( area ))
+					components.add( component );
+			}
+
+			return components;
+		}
+	}
+
+	/**
+	 *  Update the index for a component whose location, size, visibility or
+	 *  preferred size has changed. Only the entry of the component is updated.
+	 *  Moved, resized, shown and hidden components are reported automatically,
+	 *  but ComponentEvents are delivered later, so reporting the change
+	 *  directly avoids laying out the container twice. This method does
+	 *  nothing when the layout is not indexed.
+	 *
+	 *  @param component the component that was changed
+	 *  @return true when the entry of the component was changed
+	 */
+	public boolean componentMoved(Component component)
+	{
+		Container parent = component.getParent();
+
+		if (parent == null) return false;
+
+		synchronized (parent.getTreeLock())
+		{
+			if (index != null && index.parent == parent)
+				return index.update( component );
+
+			return false;
+		}
+	}
+
+	/*
+	 *  Listen for changes to the bounds and visibility of a component. A
+	 *  change that was not reported before the container was laid out causes
+	 *  it to be laid out again.
+	 */
+	private void track(Component component)
+	{
+		if (tracker == null)
+		{
+			tracker = new ComponentAdapter()
+			{
+				@Override
+				public void componentMoved(ComponentEvent e)
+				{
+					changed( e.getComponent() );
+				}
+
+				@Override
+				public void componentResized(ComponentEvent e)
+				{
+					changed( e.getComponent() );
+				}
+
+				@Override
+				public void componentShown(ComponentEvent e)
+				{
+					changed( e.getComponent() );
+				}
+
+				@Override
+				public void componentHidden(ComponentEvent e)
+				{
+					changed( e.getComponent() );
+				}
+
+				private void changed(Component component)
+				{
+					if (DragLayout.this.componentMoved( component ))
+						component.getParent().revalidate();
+				}
+			};
+		}
+
+		component.removeComponentListener( tracker );
+		component.addComponentListener( tracker );
+	}
+
 	/**
 	 * Adds the specified component with the specified name to the layout.
 	 * @param name the name of the component
@@ -71,6 +224,21 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 	@Override
 	public void addLayoutComponent(String name, Component comp) {}
 
+	/**
+	 * Adds the specified component to the layout. Only the entry of the
+	 * component is added to the index.
+	 * @param comp the component to be added
+	 * @param constraints not used
+	 */
+	@Override
+	public void addLayoutComponent(Component comp, Object constraints)
+	{
+		if (indexed)
+			track( comp );
+
+		componentMoved( comp );
+	}
+
 
 	/**
 	 * Removes the specified component from the layout.
@@ -80,6 +248,11 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 	@Override
 	public void removeLayoutComponent(Component component)
 	{
+		if (tracker != null)
+			component.removeComponentListener( tracker );
+
+		if (index != null)
+			index.remove( component );
 	}
 
 	/**
@@ -132,16 +305,31 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 		//  top/left of the container. The width/height values represent
 		//  the bottom/right value within the container.
 
-		for (Component component: parent.getComponents())
+		if (indexed)
 		{
-			if (component.isVisible())
+			BoundsIndex index = getIndex( parent );
+
+			if (! index.isEmpty())
 			{
-				Point p = component.getLocation();
-				Dimension d = getActualSize(component);
-				x = Math.min(x, p.x);
-				y = Math.min(y, p.y);
-				width = Math.max(width, p.x + d.width);
-				height = Math.max(height, p.y + d.height);
+				x = Math.min(x, index.getMinX());
+				y = Math.min(y, index.getMinY());
+				width = Math.max(width, index.getMaxX());
+				height = Math.max(height, index.getMaxY());
+			}
+		}
+		else
+		{
+			for (Component component: parent.getComponents())
+			{
+				if (component.isVisible())
+				{
+					Point p = component.getLocation();
+					Dimension d = getActualSize(component);
+					x = Math.min(x, p.x);
+					y = Math.min(y, p.y);
+					width = Math.max(width, p.x + d.width);
+					height = Math.max(height, p.y + d.height);
+				}
 			}
 		}
 
@@ -162,6 +350,34 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 		return d;
 	}
 
+	/**
+	 *	There is no maximum size
+	 */
+	@Override
+	public Dimension maximumLayoutSize(Container target)
+	{
+		return new Dimension(Short.MAX_VALUE, Short.MAX_VALUE);
+	}
+
+	@Override
+	public float getLayoutAlignmentX(Container target)
+	{
+		return Component.CENTER_ALIGNMENT;
+	}
+
+	@Override
+	public float getLayoutAlignmentY(Container target)
+	{
+		return Component.CENTER_ALIGNMENT;
+	}
+
+	/*
+	 *  Moving a component invalidates the container, so the index can't be
+	 *  discarded here. See componentMoved(...)
+	 */
+	@Override
+	public void invalidateLayout(Container target) {}
+
 	private Dimension getActualSize(Component component)
 	{
 		if (usePreferredSize)
@@ -192,6 +408,12 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 		int x = parentInsets.left;
 		int y = parentInsets.top;
 
+		if (indexed)
+		{
+			layoutIndexed(parent, x, y);
+			return;
+		}
+
 		//  Get x/y location of any component outside the bounds of the panel.
 		//  All components will be adjust by the x/y values, if necessary.
 
@@ -222,6 +444,302 @@ public class DragLayout implements LayoutManager, java.io.Serializable
 		}
 	}}
 
+	/*
+	 *  The bounds in the index are the bounds each component should have.
+	 *  Only the components whose entries changed since the last layout are
+	 *  resized, unless all components must be shifted back into the container.
+	 */
+	private void layoutIndexed(Container parent, int left, int top)
+	{
+		BoundsIndex index = getIndex( parent );
+
+		if (index.isEmpty())
+		{
+			index.changed.clear();
+			return;
+		}
+
+		int x = Math.min(left, index.getMinX());
+		int y = Math.min(top, index.getMinY());
+
+		x = (x < left) ? left - x : 0;
+		y = (y < top) ? top - y : 0;
+
+		if (x != 0 || y != 0)
+		{
+			for (Component component: parent.getComponents())
+			{
+				Rectangle r = index.getBounds( component );
+
+				if (r != null)
+					component.setBounds(r.x + x, r.y + y, r.width, r.height);
+			}
+
+			index.update( parent );
+			index.changed.clear();
+			return;
+		}
+
+		for (Component component: index.changed)
+		{
+			Rectangle r = index.getBounds( component );
+
+			if (r != null
+			&&  (component.getWidth() != r.width || component.getHeight() != r.height))
+			{
+				component.setBounds(r.x, r.y, r.width, r.height);
+			}
+		}
+
+		index.changed.clear();
+	}
+
+	/*
+	 *  Get the index for the parent container. All the components are only
+	 *  added when the index is created. After that the index is updated one
+	 *  component at a time by componentMoved(...), which is also invoked by
+	 *  the ComponentListener of each component, and removeLayoutComponent(...)
+	 */
+	private BoundsIndex getIndex(Container parent)
+	{
+		if (index == null
+		||  index.parent != parent)
+		{
+			index = new BoundsIndex( parent );
+
+			for (Component component: parent.getComponents())
+				track( component );
+
+			index.update( parent );
+		}
+
+		return index;
+	}
+
+	/*
+	 *  Sorted edges of all visible components, giving the extent of the
+	 *  components in O(log n), and a uniform grid of the components in each
+	 *  cell for area queries.
+	 */
+	private class BoundsIndex
+	{
+		private final static int CELL_SIZE = 128;
+
+		private Container parent;
+		private Map<Component, Rectangle> bounds = new HashMap<Component, Rectangle>();
+		private TreeMap<Integer, Integer> lefts = new TreeMap<Integer, Integer>();
+		private TreeMap<Integer, Integer> tops = new TreeMap<Integer, Integer>();
+		private TreeMap<Integer, Integer> rights = new TreeMap<Integer, Integer>();
+		private TreeMap<Integer, Integer> bottoms = new TreeMap<Integer, Integer>();
+		private Map<Long, Set<Component>> cells = new HashMap<Long, Set<Component>>();
+
+		//  Components whose entries changed since the container was laid out
+
+		private Set<Component> changed = new LinkedHashSet<Component>();
+
+		BoundsIndex(Container parent)
+		{
+			this.parent = parent;
+		}
+
+		boolean isEmpty()
+		{
+			return bounds.isEmpty();
+		}
+
+		int getMinX()
+		{
+			return lefts.firstKey();
+		}
+
+		int getMinY()
+		{
+			return tops.firstKey();
+		}
+
+		int getMaxX()
+		{
+			return rights.lastKey();
+		}
+
+		int getMaxY()
+		{
+			return bottoms.lastKey();
+		}
+
+		Rectangle getBounds(Component component)
+		{
+			return bounds.get( component );
+		}
+
+		/*
+		 *  Compare the cached bounds of every component with its current
+		 *  location. Only used when the index is created or all the
+		 *  components were shifted.
+		 */
+		void update(Container parent)
+		{
+			for (int i = 0; i < parent.getComponentCount(); i++)
+			{
+				update( parent.getComponent(i) );
+			}
+		}
+
+		/*
+		 *  @return true when the entry of the component was changed
+		 */
+		boolean update(Component component)
+		{
+			Rectangle r = bounds.get( component );
+
+			if (! component.isVisible())
+			{
+				if (r == null) return false;
+
+				remove( component );
+				return true;
+			}
+
+			//  The size only needs to be requested again when the preferred
+			//  size may have changed, or the actual size is used
+
+			if (r != null
+			&&  r.x == component.getX()
+			&&  r.y == component.getY()
+			&&  (usePreferredSize ? component.isValid() : isSameSize(component, r)))
+				return false;
+
+			Point p = component.getLocation();
+			Dimension d = getActualSize(component);
+			Rectangle updated = new Rectangle(p, d);
+
+			if (updated.equals( r ))
+				return false;
+
+			remove( component );
+			add(component, updated);
+			changed.add( component );
+			return true;
+		}
+
+		/*
+		 *  When the actual size is used, the preferred size is only used
+		 *  while the component has no size
+		 */
+		private boolean isSameSize(Component component, Rectangle r)
+		{
+			int width = component.getWidth();
+			int height = component.getHeight();
+
+			if (width == 0 || height == 0)
+				return component.isValid();
+
+			return width == r.width && height == r.height;
+		}
+
+		private void add(Component component, Rectangle r)
+		{
+			bounds.put(component, r);
+			increment(lefts, r.x);
+			increment(tops, r.y);
+			increment(rights, r.x + r.width);
+			increment(bottoms, r.y + r.height);
+
+			for (long key : getCellKeys( r ))
+			{
+				Set<Component> cell = cells.get( key );
+
+				if (cell == null)
+				{
+					cell = new LinkedHashSet<Component>();
+					cells.put(key, cell);
+				}
+
+				cell.add( component );
+			}
+		}
+
+		void remove(Component component)
+		{
+			changed.remove( component );
+			Rectangle r = bounds.remove( component );
+
+			if (r == null) return;
+
+			decrement(lefts, r.x);
+			decrement(tops, r.y);
+			decrement(rights, r.x + r.width);
+			decrement(bottoms, r.y + r.height);
+
+			for (long key : getCellKeys( r ))
+			{
+				Set<Component> cell = cells.get( key );
+				cell.remove( component );
+
+				if (cell.isEmpty())
+					cells.remove( key );
+			}
+		}
+
+		List<Component> getComponentsIn(Rectangle area)
+		{
+			Set<Component> found = new LinkedHashSet<Component>();
+
+			for (long key : getCellKeys( area ))
+			{
+				Set<Component> cell = cells.get( key );
+
+				if (cell == null) continue;
+
+				for (Component component : cell)
+				{
+					if (bounds.get( component ).intersects( area ))
+						found.add( component );
+				}
+			}
+
+			return new ArrayList<Component>( found );
+		}
+
+		private void increment(TreeMap<Integer, Integer> edges, int edge)
+		{
+			Integer count = edges.get( edge );
+			edges.put(edge, count == null ? 1 : count + 1);
+		}
+
+		private void decrement(TreeMap<Integer, Integer> edges, int edge)
+		{
+			int count = edges.get( edge );
+
+			if (count == 1)
+				edges.remove( edge );
+			else
+				edges.put(edge, count - 1);
+		}
+
+		/*
+		 *  The keys of the grid cells covered by the rectangle. A zero sized
+		 *  rectangle still occupies the cell containing its location.
+		 */
+		private List<Long> getCellKeys(Rectangle r)
+		{
+			int firstColumn = Math.floorDiv(r.x, CELL_SIZE);
+			int firstRow = Math.floorDiv(r.y, CELL_SIZE);
+			int lastColumn = Math.floorDiv(r.x + Math.max(0, r.width - 1), CELL_SIZE);
+			int lastRow = Math.floorDiv(r.y + Math.max(0, r.height - 1), CELL_SIZE);
+
+			List<Long> keys = new ArrayList<Long>();
+
+			for (int column = firstColumn; column <= lastColumn; column++)
+			{
+				for (int row = firstRow; row <= lastRow; row++)
+					keys.add( ((long)column << 32) | (row & 0xffffffffL) );
+			}
+
+			return keys;
+		}
+	}
+
 	/**
 	 * Returns the string representation of this column layout's values.
 	 *
@@ -0,0 +1,256 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import javax.swing.*;
+
+/**
+ *  A DragOutline shows where a component would be moved or resized to, without
+ *  changing the bounds of the component while the mouse is being dragged. It
+ *  is used by the ComponentMover and ComponentResizer.
+ *
+ *  The outline is painted by a lightweight component added to the drag layer
+ *  of the JLayeredPane, so the glass pane of the window is left alone and the
+ *  component being dragged, its parent and the layout manager of the parent
+ *  are not touched until the drag is finished.
+ *
+ *  Each call to moveTo(...) only records the new bounds. The outline is updated
+ *  on the next frame of the shared FrameScheduler, so any number of mouse
+ *  events between two frames result in a single repaint of the old and new
+ *  areas of the outline.
+ *
+ *  Optionally a translucent "ghost" image of the component is painted inside
+ *  the outline.
+ *
+ *  Components of a Window that is not a JFrame, JDialog, JWindow or JApplet,
+ *  or a Window itself, can't be outlined. In this case start(...) returns false
+ *  and the caller should move the component directly.
+ */
+public class DragOutline extends JComponent implements ActionListener
+{
+	private final static Stroke DASHED =
+		new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, new float[] {4, 4}, 0);
+
+	private boolean ghost;
+	private float ghostAlpha = 0.5f;
+
+	private Component component;
+	private JLayeredPane layeredPane;
+	private Image ghostImage;
+	private Rectangle pending;
+	private Rectangle outline;
+	private FrameScheduler.Subscription frame;
+
+	/**
+	 *  Create a DragOutline that paints a dashed outline only
+	 */
+	public DragOutline()
+	{
+		this( false );
+	}
+
+	/**
+	 *  Create a DragOutline
+	 *
+	 *  @param ghost  when true a translucent image of the component is also
+	 *                painted inside the outline
+	 */
+	public DragOutline(boolean ghost)
+	{
+		setGhost( ghost );
+		setForeground( Color.DARK_GRAY );
+		setOpaque( false );
+
+		frame = FrameScheduler.getSharedInstance().subscribe(0, this);
+		frame.setRepeats( false );
+	}
+
+	/**
+	 *  Get the ghost property
+	 *
+	 *  @return the ghost property
+	 */
+	public boolean isGhost()
+	{
+		return ghost;
+	}
+
+	/**
+	 *  Paint a translucent image of the component inside the outline. The
+	 *  image is created when the drag starts and is scaled when the component
+	 *  is resized.
+	 *
+	 *  @param ghost  true to paint the image
+	 */
+	public void setGhost(boolean ghost)
+	{
+		this.ghost = ghost;
+	}
+
+	/**
+	 *  Get the ghost alpha
+	 *
+	 *  @return the alpha value used to paint the ghost image
+	 */
+	public float getGhostAlpha()
+	{
+		return ghostAlpha;
+	}
+
+	/**
+	 *  Set the alpha value used to paint the ghost image
+	 *
+	 *  @param ghostAlpha  a value between 0.0 and 1.0
+	 */
+	public void setGhostAlpha(float ghostAlpha)
+	{
+		this.ghostAlpha = Math.max(0.0f, Math.min(ghostAlpha, 1.0f));
+	}
+
+	/**
+	 *  Is an outline currently shown
+	 *
+	 *  @return true between a successful start(...) and stop()
+	 */
+	public boolean isActive()
+	{
+		return component != null;
+	}
+
+	/**
+	 *  Start showing the outline at the current bounds of the component.
+	 *
+	 *  @param component  the component being moved or resized
+	 *  @param cursor     the cursor to show while the mouse is over the outline
+	 *  @return true when the outline is shown, false when the component can't
+	 *          be outlined and must be changed directly
+	 */
+	public boolean start(Component component, Cursor cursor)
+	{
+		if (component instanceof Window
+		||  component.getParent() == null)
+			return false;
+
+		JRootPane rootPane = SwingUtilities.getRootPane( component );
+
+		if (rootPane == null) return false;
+
+		this.component = component;
+		layeredPane = rootPane.getLayeredPane();
+		ghostImage = ghost ? createGhostImage( component ) : null;
+		setCursor( cursor );
+
+		//  The outline covers the visible area of the parent, so it is clipped
+		//  the same way the component itself would be
+
+		Container parent = component.getParent();
+		Rectangle visible = parent instanceof JComponent
+			? ((JComponent)parent).getVisibleRect()
+			: new Rectangle(0, 0, parent.getWidth(), parent.getHeight());
+
+		layeredPane.add(this, JLayeredPane.DRAG_LAYER);
+		setBounds( SwingUtilities.convertRectangle(parent, visible, layeredPane) );
+
+		pending = component.getBounds();
+		outline = SwingUtilities.convertRectangle(parent, pending, this);
+		repaint();
+
+		return true;
+	}
+
+	/**
+	 *  Move the outline. The outline is repainted on the next frame.
+	 *
+	 *  @param bounds  the new bounds, relative to the parent of the component
+	 */
+	public void moveTo(Rectangle bounds)
+	{
+		if (component == null) return;
+
+		pending = new Rectangle( bounds );
+
+		if (! frame.isRunning())
+			frame.start();
+	}
+
+	/**
+	 *  Stop showing the outline.
+	 *
+	 *  @return the last bounds passed to moveTo(...), relative to the parent
+	 *          of the component, or null when the outline was not active
+	 */
+	public Rectangle stop()
+	{
+		if (component == null) return null;
+
+		frame.stop();
+		Rectangle bounds = getBounds();
+		layeredPane.remove( this );
+		layeredPane.repaint(bounds.x, bounds.y, bounds.width, bounds.height);
+
+		Rectangle last = pending;
+		component = null;
+		layeredPane = null;
+		ghostImage = null;
+		pending = null;
+		outline = null;
+
+		return last;
+	}
+
+	/*
+	 *  Paint the component at its current size into an image
+	 */
+	private Image createGhostImage(Component component)
+	{
+		int width = component.getWidth();
+		int height = component.getHeight();
+
+		if (width <= 0 || height <= 0) return null;
+
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = image.createGraphics();
+		component.paint( g2 );
+		g2.dispose();
+
+		return image;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		if (outline == null) return;
+
+		Graphics2D g2 = (Graphics2D)g.create();
+
+		if (ghostImage != null)
+		{
+			g2.setComposite( AlphaComposite.getInstance(AlphaComposite.SRC_OVER, ghostAlpha) );
+			g2.drawImage(ghostImage, outline.x, outline.y, outline.width, outline.height, null);
+			g2.setComposite( AlphaComposite.SrcOver );
+		}
+
+		g2.setColor( getForeground() );
+		g2.setStroke( DASHED );
+		g2.drawRect(outline.x, outline.y, outline.width - 1, outline.height - 1);
+		g2.dispose();
+	}
+
+//
+//  Implement the ActionListener interface
+//
+	/**
+	 *  Repaint only the old and new areas of the outline
+	 */
+	public void actionPerformed(ActionEvent e)
+	{
+		if (component == null) return;
+
+		Rectangle old = outline;
+		outline = SwingUtilities.convertRectangle(component.getParent(), pending, this);
+
+		if (outline.equals( old )) return;
+
+		repaint(old.x, old.y, old.width, old.height);
+		repaint(outline.x, outline.y, outline.width, outline.height);
+	}
+}
@@ -0,0 +1,396 @@
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import javax.swing.*;
+import javax.swing.event.*;
+import javax.swing.text.*;
+
+/*
+ *  A ComboBoxModel that shows only the items of a source model that match a
+ *  filter. It is intended to be used with an editable combo box where the
+ *  list is narrowed as the user types, see install(...). The source model
+ *  would typically be a SortedComboBoxModel.
+ *
+ *  An item matches when its display value contains the filter (SUBSTRING),
+ *  or contains all the characters of the filter in the same order (FUZZY).
+ *  Matching ignores case.
+ *
+ *  The display values are taken from the source model on the EDT, using the
+ *  getDisplayValue() method of a KeySelectionRenderer when one is specified,
+ *  so the same text is used for rendering, key selection and filtering. The
+ *  matching is then done by a SwingWorker, so typing is not delayed for large
+ *  models. A new filter cancels the matching of the previous filter and the
+ *  results are published with a single contentsChanged event.
+ *
+ *  When the model is installed in a combo box, the filter is updated after
+ *  the document of the editor has finished its notification, and the text and
+ *  caret of the editor are kept when the list of matching items changes.
+ */
+public class FilteredComboBoxModel<E> extends AbstractListModel<E>
+	implements ComboBoxModel<E>, ListDataListener
+{
+	public final static int SUBSTRING = 0;
+	public final static int FUZZY = 1;
+
+	private ListModel<E> source;
+	private KeySelectionRenderer renderer;
+	private int matchMode = SUBSTRING;
+	private String filter = "";
+	private Object selectedItem;
+
+	//  A snapshot of the source model and the lower cased display values
+
+	private Object[] items;
+	private String[] values;
+
+	//  The snapshot shown by the model and the positions of the matching
+	//  items in it, or null when all items match
+
+	private Object[] shown;
+	private int[] matches;
+	private SwingWorker<int[], Void> worker;
+
+	//  The editor of the combo box the model is installed in
+
+	private JTextComponent editor;
+	private boolean restoringEditor;
+
+	/*
+	 *  Create a model that filters the items of the source model using the
+	 *  toString() value of each item.
+	 */
+	public FilteredComboBoxModel(ListModel<E> source)
+	{
+		this(source, null);
+	}
+
+	/*
+	 *  Create a model that filters the items of the source model using the
+	 *  display value of the renderer.
+	 */
+	public FilteredComboBoxModel(ListModel<E> source, KeySelectionRenderer renderer)
+	{
+		this.source = source;
+		this.renderer = renderer;
+
+		loadItems();
+		shown = items;
+		source.addListDataListener( this );
+
+		if (source instanceof ComboBoxModel)
+			selectedItem = ((ComboBoxModel)source).getSelectedItem();
+	}
+
+	/*
+	 *  Get the match mode
+	 */
+	public int getMatchMode()
+	{
+		return matchMode;
+	}
+
+	/*
+	 *  Set the match mode, either SUBSTRING or FUZZY
+	 */
+	public void setMatchMode(int matchMode)
+	{
+		if (matchMode != SUBSTRING && matchMode != FUZZY)
+		{
+			String message = "Match mode must be SUBSTRING or FUZZY";
+			throw new IllegalArgumentException( message );
+		}
+
+		this.matchMode = matchMode;
+		applyFilter();
+	}
+
+	/*
+	 *  Get the current filter
+	 */
+	public String getFilter()
+	{
+		return filter;
+	}
+
+	/*
+	 *  Show only the items matching the filter. The model is updated when the
+	 *  matching has been done. An empty filter shows all the items.
+	 */
+	public void setFilter(String filter)
+	{
+		filter = filter == null ? "" : filter.toLowerCase();
+
+		if (filter.equals( this.filter )) return;
+
+		this.filter = filter;
+		applyFilter();
+	}
+
+	/*
+	 *  The text used to match an item
+	 */
+	protected String getDisplayValue(Object item)
+	{
+		if (renderer != null)
+			return renderer.getDisplayValue( item );
+		else
+			return String.valueOf( item );
+	}
+
+	/*
+	 *  Use the model for an editable combo box. The filter is changed as the
+	 *  user types in the editor and the popup is shown with the matching items.
+	 */
+	public void install(final JComboBox<E> comboBox)
+	{
+		comboBox.setModel( this );
+		comboBox.setEditable( true );
+
+		editor = (JTextComponent)comboBox.getEditor().getEditorComponent();
+		editor.getDocument().addDocumentListener( new DocumentListener()
+		{
+			private boolean pending;
+
+			public void insertUpdate(DocumentEvent e) { invokeUpdate(); }
+			public void removeUpdate(DocumentEvent e) { invokeUpdate(); }
+			public void changedUpdate(DocumentEvent e) {}
+
+			/*
+			 *  The combo box updates the editor when the model changes, and
+			 *  the document can't be changed while it is notifying its
+			 *  listeners, so the filter is changed later
+			 */
+			private void invokeUpdate()
+			{
+				if (restoringEditor || pending) return;
+
+				pending = true;
+
+				SwingUtilities.invokeLater(new Runnable()
+				{
+					public void run()
+					{
+						pending = false;
+						update();
+					}
+				});
+			}
+
+			private void update()
+			{
+				String text = editor.getText();
+
+				//  The editor is also updated when an item is selected
+
+				if (selectedItem != null && text.equals( getDisplayValue(selectedItem) ))
+					return;
+
+				setFilter( text );
+
+				if (editor.isFocusOwner() && comboBox.isShowing())
+					comboBox.setPopupVisible( true );
+			}
+		});
+	}
+
+	/*
+	 *  Take a snapshot of the source model and its display values
+	 */
+	private void loadItems()
+	{
+		int size = source.getSize();
+		items = new Object[size];
+		values = new String[size];
+
+		for (int i = 0; i < size; i++)
+		{
+			Object item = source.getElementAt(i);
+			items[i] = item;
+			values[i] = item == null ? "" : getDisplayValue( item ).toLowerCase();
+		}
+	}
+
+	/*
+	 *  Cancel the previous match and start matching the current filter
+	 */
+	private void applyFilter()
+	{
+		if (worker != null)
+		{
+			worker.cancel( true );
+			worker = null;
+		}
+
+		if (filter.length() == 0)
+		{
+			showMatches(items, null);
+			return;
+		}
+
+		final String filter = this.filter;
+		final int matchMode = this.matchMode;
+		final Object[] items = this.items;
+		final String[] values = this.values;
+
+		worker = new SwingWorker<int[], Void>()
+		{
+			@Override
+			protected int[] doInBackground()
+			{
+				int[] positions = new int[values.length];
+				int count = 0;
+
+				for (int i = 0; i < values.length; i++)
+				{
+					//  Stop as soon as a newer filter has been entered
+
+					if ((i & 1023) == 0 && isCancelled())
+						return null;
+
+					if (matches(values[i], filter, matchMode))
+						positions[count++] = i;
+				}
+
+				return Arrays.copyOf(positions, count);
+			}
+
+			@Override
+			protected void done()
+			{
+				if (worker != this || isCancelled()) return;
+
+				worker = null;
+
+				try
+				{
+					showMatches(items, get());
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				catch (ExecutionException e)
+				{
+					//  Show all the items rather than stale matches
+
+					showMatches(items, null);
+					throw new IllegalStateException("Unable to match the filter", e.getCause());
+				}
+			}
+		};
+
+		worker.execute();
+	}
+
+	/*
+	 *  Does the display value match the filter
+	 */
+	private static boolean matches(String value, String filter, int matchMode)
+	{
+		if (matchMode == SUBSTRING)
+			return value.contains( filter );
+
+		int next = 0;
+
+		for (int i = 0; i < filter.length(); i++)
+		{
+			next = value.indexOf(filter.charAt(i), next);
+
+			if (next < 0) return false;
+
+			next++;
+		}
+
+		return true;
+	}
+
+	/*
+	 *  Show the matching items, notifying the listeners with a single event.
+	 *  The combo box sets the selected item in the editor when the contents
+	 *  change, so the text being typed and the caret are restored.
+	 */
+	private void showMatches(Object[] items, int[] matches)
+	{
+		int oldSize = getSize();
+		this.shown = items;
+		this.matches = matches;
+		int size = Math.max(oldSize, getSize());
+
+		if (size == 0) return;
+
+		String text = editor == null ? null : editor.getText();
+		int caret = editor == null ? 0 : editor.getCaretPosition();
+
+		fireContentsChanged(this, 0, size - 1);
+
+		if (text != null && ! text.equals( editor.getText() ))
+		{
+			restoringEditor = true;
+
+			try
+			{
+				editor.setText( text );
+				editor.setCaretPosition( Math.min(caret, text.length()) );
+			}
+			finally
+			{
+				restoringEditor = false;
+			}
+		}
+	}
+
+//
+//  Implement the ComboBoxModel interface
+//
+	public int getSize()
+	{
+		return matches == null ? shown.length : matches.length;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E getElementAt(int index)
+	{
+		return (E)shown[matches == null ? index : matches[index]];
+	}
+
+	public Object getSelectedItem()
+	{
+		return selectedItem;
+	}
+
+	public void setSelectedItem(Object selectedItem)
+	{
+		if (selectedItem == null ? this.selectedItem == null : selectedItem.equals( this.selectedItem ))
+			return;
+
+		this.selectedItem = selectedItem;
+		fireContentsChanged(this, -1, -1);
+	}
+
+//
+//  Implement the ListDataListener interface
+//
+	/*
+	 *  The source model has changed, so take a new snapshot and match the
+	 *  current filter again. A change of the selected item of the source is
+	 *  ignored.
+	 */
+	public void contentsChanged(ListDataEvent e)
+	{
+		if (e.getIndex0() == -1 && e.getIndex1() == -1) return;
+
+		loadItems();
+		applyFilter();
+	}
+
+	public void intervalAdded(ListDataEvent e)
+	{
+		loadItems();
+		applyFilter();
+	}
+
+	public void intervalRemoved(ListDataEvent e)
+	{
+		loadItems();
+		applyFilter();
+	}
+}
@@ -1,3 +1,5 @@
+import java.awt.*;
+import java.awt.event.*;
 import java.beans.*;
 import javax.swing.*;
 import javax.swing.event.*;
@@ -17,12 +19,19 @@ import javax.swing.table.*;
  *  You can change the model of the main table and the change will be
  *  reflected in the fixed model. However, you cannot change the structure
  *  of the model.
+ *
+ *  In synchronized repaint mode the fixed table uses the row heights of the
+ *  main table, so rows of different heights stay aligned. A selection change
+ *  then results in a single repaint of the rows that changed, across both
+ *  tables, instead of a repaint by each table.
  */
-public class FixedColumnTable implements ChangeListener, PropertyChangeListener
+public class FixedColumnTable
+	implements ChangeListener, PropertyChangeListener, ListSelectionListener
 {
 	private JTable main;
-	private JTable fixed;
+	private FixedTable fixed;
 	private JScrollPane scrollPane;
+	private boolean synchronizedRepaint;
 
 	/*
 	 *  Specify the number of columns to be fixed and the scroll pane
@@ -41,7 +50,7 @@ public class FixedColumnTable implements ChangeListener, PropertyChangeListener
 
 		int totalColumns = main.getColumnCount();
 
-		fixed = new JTable();
+		fixed = new FixedTable();
 		fixed.setAutoCreateColumnsFromModel( false );
 		fixed.setModel( main.getModel() );
 		fixed.setSelectionModel( main.getSelectionModel() );
@@ -67,6 +76,46 @@ public class FixedColumnTable implements ChangeListener, PropertyChangeListener
 		// Synchronize scrolling of the row header with the main table
 
 		scrollPane.getRowHeader().addChangeListener( this );
+
+		//  The height of the main table changes when the height of a row
+		//  changes, so the fixed table must be sized again
+
+		main.addComponentListener( new ComponentAdapter()
+		{
+			@Override
+			public void componentResized(ComponentEvent e)
+			{
+				if (synchronizedRepaint && fixed.getHeight() != main.getHeight())
+					fixed.revalidate();
+			}
+		});
+	}
+
+	/*
+	 *  Get the synchronized repaint property
+	 */
+	public boolean isSynchronizedRepaint()
+	{
+		return synchronizedRepaint;
+	}
+
+	/*
+	 *  When true, the fixed table uses the row heights of the main table and
+	 *  a selection change is repainted once for both tables.
+	 */
+	public void setSynchronizedRepaint(boolean synchronizedRepaint)
+	{
+		if (this.synchronizedRepaint == synchronizedRepaint) return;
+
+		this.synchronizedRepaint = synchronizedRepaint;
+
+		if (synchronizedRepaint)
+			main.getSelectionModel().addListSelectionListener( this );
+		else
+			main.getSelectionModel().removeListSelectionListener( this );
+
+		fixed.revalidate();
+		fixed.repaint();
 	}
 
 	/*
@@ -84,7 +133,11 @@ public class FixedColumnTable implements ChangeListener, PropertyChangeListener
 		//  Sync the scroll pane scrollbar with the row header
 
 		JViewport viewport = (JViewport) e.getSource();
-		scrollPane.getVerticalScrollBar().setValue(viewport.getViewPosition().y);
+		JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+		int y = viewport.getViewPosition().y;
+
+		if (scrollBar.getValue() != y)
+			scrollBar.setValue( y );
 	}
 //
 //  Implement the PropertyChangeListener
@@ -96,6 +149,12 @@ public class FixedColumnTable implements ChangeListener, PropertyChangeListener
 		if ("selectionModel".equals(e.getPropertyName()))
 		{
 			fixed.setSelectionModel( main.getSelectionModel() );
+
+			if (synchronizedRepaint)
+			{
+				((ListSelectionModel)e.getOldValue()).removeListSelectionListener( this );
+				main.getSelectionModel().addListSelectionListener( this );
+			}
 		}
 
 		if ("model".equals(e.getPropertyName()))
@@ -103,4 +162,73 @@ public class FixedColumnTable implements ChangeListener, PropertyChangeListener
 			fixed.setModel( main.getModel() );
 		}
 	}
+//
+//  Implement the ListSelectionListener
+//
+	/*
+	 *  Repaint the band of changed rows across the row header and the
+	 *  viewport. The band of the main table is contained in this area, so the
+	 *  RepaintManager paints both tables in a single pass.
+	 */
+	public void valueChanged(ListSelectionEvent e)
+	{
+		int rowCount = main.getRowCount();
+		int first = Math.max(e.getFirstIndex(), 0);
+		int last = Math.min(e.getLastIndex(), rowCount - 1);
+
+		if (first > last) return;
+
+		Rectangle band = main.getCellRect(first, 0, true);
+		band = band.union( main.getCellRect(last, 0, true) );
+		band = SwingUtilities.convertRectangle(main, band, scrollPane);
+		scrollPane.repaint(0, band.y, scrollPane.getWidth(), band.height);
+	}
+
+	/*
+	 *  In synchronized repaint mode the fixed table takes the position and
+	 *  height of each row from the main table, and leaves the repainting of
+	 *  selection changes to the FixedColumnTable.
+	 */
+	class FixedTable extends JTable
+	{
+		@Override
+		public int getRowHeight()
+		{
+			return synchronizedRepaint ? main.getRowHeight() : super.getRowHeight();
+		}
+
+		@Override
+		public int getRowHeight(int row)
+		{
+			return synchronizedRepaint ? main.getRowHeight(row) : super.getRowHeight(row);
+		}
+
+		@Override
+		public int rowAtPoint(Point point)
+		{
+			return synchronizedRepaint ? main.rowAtPoint(point) : super.rowAtPoint(point);
+		}
+
+		@Override
+		public Rectangle getCellRect(int row, int column, boolean includeSpacing)
+		{
+			Rectangle r = super.getCellRect(row, column, includeSpacing);
+
+			if (synchronizedRepaint)
+			{
+				Rectangle mainRect = main.getCellRect(row, 0, includeSpacing);
+				r.y = mainRect.y;
+				r.height = mainRect.height;
+			}
+
+			return r;
+		}
+
+		@Override
+		public void valueChanged(ListSelectionEvent e)
+		{
+			if (! synchronizedRepaint)
+				super.valueChanged( e );
+		}
+	}
 }
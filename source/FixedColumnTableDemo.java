@@ -0,0 +1,138 @@
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+import javax.swing.table.*;
+
+/*
+ *  A table with 40 fixed and 200 scrolling columns. The "Scroll Benchmark"
+ *  button scrolls down the table one row at a time, selecting the row at the
+ *  top of the viewport and painting the dirty regions after every step, and
+ *  reports the time taken with and without synchronized repainting.
+ */
+public class FixedColumnTableDemo extends JPanel
+	implements ActionListener
+{
+	private final static int FIXED_COLUMNS = 40;
+	private final static int SCROLLING_COLUMNS = 200;
+	private final static int ROWS = 10000;
+	private final static int STEPS = 500;
+
+	private JTable table;
+	private JScrollPane scrollPane;
+	private FixedColumnTable fixedColumnTable;
+	private JCheckBox synchronizedRepaint;
+	private JLabel result;
+
+	FixedColumnTableDemo()
+	{
+		setLayout( new BorderLayout() );
+
+		table = new JTable( new DemoModel() );
+		table.setAutoResizeMode( JTable.AUTO_RESIZE_OFF );
+
+		//  Some taller rows, to show the row heights are shared
+
+		for (int row = 0; row < ROWS; row += 7)
+			table.setRowHeight(row, table.getRowHeight() * 2);
+
+		scrollPane = new JScrollPane( table );
+		fixedColumnTable = new FixedColumnTable(FIXED_COLUMNS, scrollPane);
+		fixedColumnTable.getFixedTable().setPreferredScrollableViewportSize( new Dimension(400, 0) );
+
+		add(scrollPane, BorderLayout.CENTER);
+		add(createSouthPanel(), BorderLayout.SOUTH);
+	}
+
+	private JComponent createSouthPanel()
+	{
+		JPanel panel = new JPanel();
+
+		synchronizedRepaint = new JCheckBox("Synchronized Repaint");
+		synchronizedRepaint.addActionListener( this );
+		panel.add( synchronizedRepaint );
+
+		JButton benchmark = new JButton("Scroll Benchmark");
+		benchmark.addActionListener( this );
+		panel.add( benchmark );
+
+		result = new JLabel(" ");
+		panel.add( result );
+
+		return panel;
+	}
+
+	public void actionPerformed(ActionEvent e)
+	{
+		if (e.getSource() == synchronizedRepaint)
+		{
+			fixedColumnTable.setSynchronizedRepaint( synchronizedRepaint.isSelected() );
+			return;
+		}
+
+		JViewport viewport = scrollPane.getViewport();
+		RepaintManager repaintManager = RepaintManager.currentManager( table );
+		repaintManager.paintDirtyRegions();
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < STEPS; i++)
+		{
+			Rectangle r = table.getCellRect(i, 0, true);
+			viewport.setViewPosition( new Point(viewport.getViewPosition().x, r.y) );
+			table.setRowSelectionInterval(i, i);
+			repaintManager.paintDirtyRegions();
+		}
+
+		long elapsed = (System.nanoTime() - start) / 1000;
+		viewport.setViewPosition( new Point(0, 0) );
+		table.clearSelection();
+
+		result.setText(STEPS + " scrolls: " + (elapsed / STEPS) + " microseconds per scroll");
+	}
+
+	/*
+	 *  Generate the values instead of storing them
+	 */
+	static class DemoModel extends AbstractTableModel
+	{
+		public int getRowCount()
+		{
+			return ROWS;
+		}
+
+		public int getColumnCount()
+		{
+			return FIXED_COLUMNS + SCROLLING_COLUMNS;
+		}
+
+		public Object getValueAt(int row, int column)
+		{
+			return row * column;
+		}
+
+		@Override
+		public Class<?> getColumnClass(int column)
+		{
+			return Integer.class;
+		}
+	}
+
+	public static void main(String[] args)
+	{
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				createAndShowGUI();
+			}
+		});
+	}
+
+	public static void createAndShowGUI()
+	{
+		JFrame frame = new JFrame("Fixed Column Table");
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		frame.add( new FixedColumnTableDemo() );
+		frame.setSize(1000, 600);
+		frame.setLocationRelativeTo(null);
+		frame.setVisible(true);
+	}
+}
@@ -1,13 +1,45 @@
 import java.text.Format;
 import java.text.DateFormat;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.TemporalAccessor;
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableModel;
 
 /*
  *	Use a formatter to format the cell Object
+ *
+ *  Either a java.text.Format or a java.time DateTimeFormatter can be used.
+ *  The DateTimeFormatter is immutable and thread safe and will also format
+ *  Date and Calendar values using the time zone of the renderer.
+ *
+ *  The formatted text of immutable values (numbers, strings, enums, java.time
+ *  values and dates) is kept in a small cache, so repeated values, like
+ *  currencies or status codes, are only formatted once. A column can also be
+ *  formatted in the background, see preformatColumn(...), so painting the
+ *  column only needs to draw the Strings.
+ *
+ *  A java.text.Format is mutable. When the Format used by the renderer is
+ *  changed, formatterChanged() must be invoked to discard the text formatted
+ *  by the previous settings.
  */
 public class FormatRenderer extends DefaultTableCellRenderer
 {
+	private final static int DEFAULT_CACHE_SIZE = 256;
+
 	private Format formatter;
+	private DateTimeFormatter dateTimeFormatter;
+	private ZoneId zone;
+
+	private Map<Object, String> cache;
+	private int cacheSize;
+	private Map<Object, String> preformatted = Collections.emptyMap();
+	private int generation;
 
 	/*
 	 *   Use the specified formatter to format the Object
@@ -15,20 +47,280 @@ public class FormatRenderer extends DefaultTableCellRenderer
 	public FormatRenderer(Format formatter)
 	{
 		this.formatter = formatter;
+		setCacheSize( DEFAULT_CACHE_SIZE );
+	}
+
+	/*
+	 *   Use the specified formatter to format the Object. Date, Calendar and
+	 *   Instant values are formatted in the default time zone.
+	 */
+	public FormatRenderer(DateTimeFormatter formatter)
+	{
+		this(formatter, ZoneId.systemDefault());
+	}
+
+	/*
+	 *   Use the specified formatter to format the Object. Date, Calendar and
+	 *   Instant values are formatted in the specified time zone.
+	 */
+	public FormatRenderer(DateTimeFormatter formatter, ZoneId zone)
+	{
+		this.dateTimeFormatter = formatter;
+		this.zone = zone;
+		setCacheSize( DEFAULT_CACHE_SIZE );
+	}
+
+	/*
+	 *  Get the java.text.Format used by the renderer
+	 *
+	 *  @return the Format, or null when a DateTimeFormatter is used
+	 */
+	public Format getFormatter()
+	{
+		return formatter;
+	}
+
+	/*
+	 *  Use a different java.text.Format to format the Object
+	 */
+	public void setFormatter(Format formatter)
+	{
+		this.formatter = formatter;
+		dateTimeFormatter = null;
+		formatterChanged();
+	}
+
+	/*
+	 *  The settings of the Format have been changed, so the cached and
+	 *  preformatted text is removed
+	 */
+	public void formatterChanged()
+	{
+		clearCache();
+	}
+
+	/*
+	 *  The maximum number of formatted values to cache. The least recently
+	 *  used value is removed when the cache is full. Use 0 to turn off caching.
+	 */
+	public void setCacheSize(final int cacheSize)
+	{
+		this.cacheSize = cacheSize;
+
+		cache = new LinkedHashMap<Object, String>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, String> eldest)
+			{
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	public int getCacheSize()
+	{
+		return cacheSize;
+	}
+
+	/*
+	 *  Remove the cached and preformatted values
+	 */
+	public void clearCache()
+	{
+		cache.clear();
+		preformatted = Collections.emptyMap();
+
+		//  Text being preformatted is discarded
+
+		generation++;
 	}
 
 	public void setValue(Object value)
 	{
 		//  Format the Object before setting its value in the renderer
 
+		if (value != null)
+		{
+			String text = getText( value );
+
+			if (text != null)
+				value = text;
+		}
+
+		super.setValue(value);
+	}
+
+	/*
+	 *  Get the text of a value from the preformatted values or the cache,
+	 *  formatting and caching the value when necessary
+	 */
+	private String getText(Object value)
+	{
+		Object key = getCacheKey( value );
+
+		if (key == null)
+			return format(value, formatter);
+
+		String text = preformatted.get( key );
+
+		if (text == null && cacheSize > 0)
+			text = cache.get( key );
+
+		if (text == null)
+		{
+			text = format(value, formatter);
+
+			if (text != null && cacheSize > 0)
+				cache.put(key, text);
+		}
+
+		return text;
+	}
+
+	/*
+	 *  Format the value using the DateTimeFormatter of the renderer or the
+	 *  specified Format. The Format is only used by one thread at a time.
+	 *
+	 *  @return the formatted text, or null when the value can't be formatted
+	 */
+	protected String format(Object value, Format formatter)
+	{
 		try
 		{
-			if (value != null)
-				value = formatter.format(value);
+			if (dateTimeFormatter == null)
+				return formatter.format( value );
+
+			TemporalAccessor temporal = null;
+
+			if (value instanceof TemporalAccessor)
+				temporal = (TemporalAccessor)value;
+			else if (value instanceof Date)
+				temporal = Instant.ofEpochMilli( ((Date)value).getTime() );
+			else if (value instanceof Calendar)
+				temporal = ((Calendar)value).toInstant();
+
+			if (temporal instanceof Instant)
+				temporal = ((Instant)temporal).atZone( zone );
+
+			return temporal == null ? null : dateTimeFormatter.format( temporal );
 		}
 		catch(IllegalArgumentException e) {}
+		catch(DateTimeException e) {}
 
-		super.setValue(value);
+		return null;
+	}
+
+	/*
+	 *  Only immutable values can be cached. A Date is mutable, so a copy is
+	 *  used as the key.
+	 *
+	 *  @return the key of the value, or null when the value can't be cached
+	 */
+	private static Object getCacheKey(Object value)
+	{
+		Class<?> type = value.getClass();
+
+		if (type == Date.class)
+			return new Date( ((Date)value).getTime() );
+
+		if (value instanceof String
+		||  value instanceof Enum
+		||  value instanceof Boolean
+		||  value instanceof Character
+		||  type == Integer.class
+		||  type == Long.class
+		||  type == Short.class
+		||  type == Byte.class
+		||  type == Double.class
+		||  type == Float.class
+		||  type == BigDecimal.class
+		||  type == BigInteger.class
+		||  (value instanceof TemporalAccessor && type.getName().startsWith("java.time.")))
+			return value;
+
+		return null;
+	}
+
+	/*
+	 *  Format the values of a column of the table in the background. The values
+	 *  are taken from the model on the Event Dispatch Thread, the distinct
+	 *  values are formatted by a SwingWorker and then the column is repainted.
+	 *  While the formatting is done, the values are formatted as they are
+	 *  painted. Values added or changed later are formatted as they are
+	 *  painted and cached as usual.
+	 *
+	 *  @param table  the table using this renderer
+	 *  @param column the column index of the table model
+	 *  @return the SwingWorker doing the formatting
+	 */
+	public SwingWorker<Map<Object, String>, Void> preformatColumn(final JTable table, int column)
+	{
+		TableModel model = table.getModel();
+		int rowCount = model.getRowCount();
+		final Set<Object> keys = new HashSet<Object>();
+
+		for (int row = 0; row < rowCount; row++)
+		{
+			Object value = model.getValueAt(row, column);
+			Object key = value == null ? null : getCacheKey( value );
+
+			if (key != null && ! preformatted.containsKey( key ))
+				keys.add( key );
+		}
+
+		//  A java.text.Format is not thread safe, so the worker uses a copy
+
+		final Format formatter = this.formatter == null ? null : (Format)this.formatter.clone();
+		final int generation = this.generation;
+
+		SwingWorker<Map<Object, String>, Void> worker = new SwingWorker<Map<Object, String>, Void>()
+		{
+			@Override
+			protected Map<Object, String> doInBackground()
+			{
+				Map<Object, String> texts = new HashMap<Object, String>();
+
+				for (Object key : keys)
+				{
+					if (isCancelled()) break;
+
+					String text = format(key, formatter);
+
+					if (text != null)
+						texts.put(key, text);
+				}
+
+				return texts;
+			}
+
+			@Override
+			protected void done()
+			{
+				if (isCancelled() || generation != FormatRenderer.this.generation) return;
+
+				try
+				{
+					Map<Object, String> texts = new HashMap<Object, String>( preformatted );
+					texts.putAll( get() );
+					preformatted = texts;
+					table.repaint();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				catch (ExecutionException e)
+				{
+					//  The values are still formatted as they are painted
+
+					throw new IllegalStateException("Unable to preformat the column", e.getCause());
+				}
+			}
+		};
+
+		worker.execute();
+
+		return worker;
 	}
 
 	/*
@@ -46,4 +338,22 @@ public class FormatRenderer extends DefaultTableCellRenderer
 	{
 		return new FormatRenderer( DateFormat.getTimeInstance() );
 	}
+
+	/*
+	 *  Use a thread safe date/time formatter of the specified style for the
+	 *  default locale
+	 */
+	public static FormatRenderer getDateTimeRenderer(FormatStyle style)
+	{
+		return new FormatRenderer( DateTimeFormatter.ofLocalizedDateTime(style) );
+	}
+
+	/*
+	 *  Use a thread safe date formatter of the specified style for the
+	 *  default locale
+	 */
+	public static FormatRenderer getDateRenderer(FormatStyle style)
+	{
+		return new FormatRenderer( DateTimeFormatter.ofLocalizedDate(style) );
+	}
 }
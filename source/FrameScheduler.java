@@ -0,0 +1,403 @@
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
+
+/**
+ *  The FrameScheduler allows any number of animations to share a single
+ *  Swing Timer. Each animation subscribes with its own delay and gets back a
+ *  Subscription, which can be used much like a javax.swing.Timer.
+ *
+ *  The Timer is only running while at least one Subscription is running. It
+ *  fires on a fixed grid of frames (by default every 16ms), so Subscriptions
+ *  that become due at about the same time are notified on the same tick,
+ *  instead of each firing its own event on the Event Dispatch Thread.
+ *
+ *  A Subscription can be paused automatically while its component is not
+ *  visible. When the Event Dispatch Thread is too busy for a Subscription to
+ *  be notified on time, its Policy controls whether the missed notifications
+ *  are dropped or caught up.
+ *
+ *  All methods must be invoked on the Event Dispatch Thread.
+ */
+public class FrameScheduler implements ActionListener
+{
+	public final static int DEFAULT_FRAME_DELAY = 16;
+
+	/**
+	 *  The maximum number of notifications made to a single Subscription on
+	 *  one tick when catching up.
+	 */
+	public final static int MAX_CATCH_UP = 10;
+
+	public enum Policy
+	{
+		DROP,
+		CATCH_UP;
+	}
+
+	private final static FrameScheduler SHARED = new FrameScheduler(DEFAULT_FRAME_DELAY);
+
+	private int frameDelay;
+	private Timer timer;
+	private List<Subscription> running = new ArrayList<Subscription>();
+
+	/**
+	 *  Create a FrameScheduler
+	 *
+	 *  @param frameDelay  the delay between frames, in milli seconds
+	 */
+	public FrameScheduler(int frameDelay)
+	{
+		this.frameDelay = Math.max(1, frameDelay);
+		timer = new Timer(this.frameDelay, this);
+		timer.setRepeats( false );
+	}
+
+	/**
+	 *  Get the FrameScheduler shared by all animations.
+	 *
+	 *  @return the shared FrameScheduler
+	 */
+	public static FrameScheduler getSharedInstance()
+	{
+		return SHARED;
+	}
+
+	/**
+	 *  Get the delay between frames
+	 *
+	 *  @return the delay in milli seconds
+	 */
+	public int getFrameDelay()
+	{
+		return frameDelay;
+	}
+
+	/**
+	 *  Create a Subscription for the listener. The Subscription must be
+	 *  started before the listener will be notified.
+	 *
+	 *  @param delay     the delay between notifications, in milli seconds
+	 *  @param listener  the listener to notify
+	 *  @return the Subscription
+	 */
+	public Subscription subscribe(int delay, ActionListener listener)
+	{
+		return new Subscription(delay, listener);
+	}
+
+	/**
+	 *  Get the number of running Subscriptions.
+	 *
+	 *  @return the number of running Subscriptions
+	 */
+	public int getRunningCount()
+	{
+		return running.size();
+	}
+
+	/*
+	 *  Schedule the Timer to fire on the first frame at or after the time
+	 *  the next Subscription is due.
+	 */
+	private void schedule()
+	{
+		if (running.isEmpty())
+		{
+			timer.stop();
+			return;
+		}
+
+		long next = Long.MAX_VALUE;
+
+		for (Subscription subscription : running)
+			next = Math.min(next, subscription.nextTime);
+
+		long frame = ((next + frameDelay - 1) / frameDelay) * frameDelay;
+		int delay = (int)Math.max(0, frame - currentTime());
+
+		timer.setInitialDelay( delay );
+		timer.restart();
+	}
+
+	private static long currentTime()
+	{
+		return System.nanoTime() / 1000000;
+	}
+
+//
+//  Implement the ActionListener interface
+//
+	/**
+	 *  Notify every Subscription that is due.
+	 */
+	public void actionPerformed(ActionEvent e)
+	{
+		long now = currentTime();
+
+		for (Subscription subscription : new ArrayList<Subscription>(running))
+		{
+			if (subscription.nextTime <= now
+			&&  subscription.isRunning())
+				subscription.fire( now );
+		}
+
+		schedule();
+	}
+
+	/**
+	 *  A Subscription to the FrameScheduler. The methods are modelled on
+	 *  javax.swing.Timer.
+	 */
+	public class Subscription implements AncestorListener
+	{
+		private ActionListener listener;
+		private int delay;
+		private int initialDelay;
+		private boolean repeats = true;
+		private boolean active;
+		private boolean hidden;
+		private long nextTime;
+		private Policy policy = Policy.DROP;
+		private JComponent component;
+
+		private Subscription(int delay, ActionListener listener)
+		{
+			this.listener = listener;
+			this.delay = delay;
+			this.initialDelay = delay;
+		}
+
+		public int getDelay()
+		{
+			return delay;
+		}
+
+		/**
+		 *  Set the delay between notifications. The new delay is used
+		 *  after the next notification.
+		 *
+		 *  @param delay  the delay in milli seconds
+		 */
+		public void setDelay(int delay)
+		{
+			this.delay = delay;
+		}
+
+		public int getInitialDelay()
+		{
+			return initialDelay;
+		}
+
+		/**
+		 *  Set the delay before the first notification after a start.
+		 *
+		 *  @param initialDelay  the delay in milli seconds
+		 */
+		public void setInitialDelay(int initialDelay)
+		{
+			this.initialDelay = initialDelay;
+		}
+
+		public boolean isRepeats()
+		{
+			return repeats;
+		}
+
+		/**
+		 *  Specify whether the listener is notified once, or repeatedly.
+		 *
+		 *  @param repeats  false to stop after the first notification
+		 */
+		public void setRepeats(boolean repeats)
+		{
+			this.repeats = repeats;
+		}
+
+		public Policy getPolicy()
+		{
+			return policy;
+		}
+
+		/**
+		 *  Specify how notifications are handled when the Event Dispatch
+		 *  Thread is too busy to notify the listener on time:
+		 *
+		 *  <ul>
+		 *  <li>DROP (default) - the missed notifications are dropped. The
+		 *  listener is notified once and the next notifications stay on the
+		 *  original schedule.
+		 *  <li>CATCH_UP - the listener is notified once for every missed
+		 *  notification, up to MAX_CATCH_UP per tick.
+		 *  </ul>
+		 *
+		 *  @param policy  the Policy for missed notifications
+		 */
+		public void setPolicy(Policy policy)
+		{
+			this.policy = policy;
+		}
+
+		/**
+		 *  Get the component whose visibility pauses this Subscription.
+		 *
+		 *  @return the component, or null
+		 */
+		public JComponent getPauseWhenHidden()
+		{
+			return component;
+		}
+
+		/**
+		 *  Pause the Subscription while the component is not visible. That
+		 *  is, when the component, or one of its ancestors, is hidden or
+		 *  removed from a Window. The Subscription is resumed when the
+		 *  component becomes visible again. A paused Subscription is still
+		 *  considered to be running.
+		 *
+		 *  @param component  the component to track, or null to notify the
+		 *                    listener regardless of visibility
+		 */
+		public void setPauseWhenHidden(JComponent component)
+		{
+			if (this.component != null)
+				this.component.removeAncestorListener( this );
+
+			this.component = component;
+
+			if (component == null)
+				setHidden( false );
+			else
+			{
+				component.addAncestorListener( this );
+				setHidden( ! component.isShowing() );
+			}
+		}
+
+		public boolean isRunning()
+		{
+			return active;
+		}
+
+		/**
+		 *  Start the Subscription. The listener is first notified after
+		 *  the initial delay.
+		 */
+		public void start()
+		{
+			if (active) return;
+
+			active = true;
+			nextTime = currentTime() + initialDelay;
+
+			if (! hidden)
+			{
+				running.add( this );
+				schedule();
+			}
+		}
+
+		/**
+		 *  Stop the Subscription. The listener will not be notified again.
+		 */
+		public void stop()
+		{
+			if (! active) return;
+
+			active = false;
+
+			if (running.remove( this ))
+				schedule();
+		}
+
+		/**
+		 *  Restart the Subscription, cancelling any pending notification.
+		 */
+		public void restart()
+		{
+			if (active)
+			{
+				active = false;
+				running.remove( this );
+			}
+
+			start();
+		}
+
+		/*
+		 *  A hidden Subscription is removed from the running list but stays
+		 *  active. When shown again it restarts the delay, so the listener
+		 *  isn't notified for all the time it was hidden.
+		 */
+		private void setHidden(boolean hidden)
+		{
+			if (this.hidden == hidden) return;
+
+			this.hidden = hidden;
+
+			if (! active) return;
+
+			if (hidden)
+				running.remove( this );
+			else
+			{
+				nextTime = currentTime() + delay;
+				running.add( this );
+			}
+
+			schedule();
+		}
+
+		private void fire(long now)
+		{
+			int notifications = 1;
+
+			if (! repeats)
+			{
+				active = false;
+				running.remove( this );
+			}
+			else if (delay <= 0)
+			{
+				nextTime = now;
+			}
+			else
+			{
+				//  Number of delays that have elapsed since the listener
+				//  should have been notified
+
+				long missed = (now - nextTime) / delay;
+				nextTime += (missed + 1) * delay;
+
+				if (policy == Policy.CATCH_UP)
+					notifications += (int)Math.min(missed, MAX_CATCH_UP - 1);
+			}
+
+			for (int i = 0; i < notifications && (active || i == 0); i++)
+			{
+				listener.actionPerformed(
+					new ActionEvent(this, ActionEvent.ACTION_PERFORMED, null, System.currentTimeMillis(), 0));
+			}
+		}
+
+//
+//  Implement the AncestorListener interface
+//
+		public void ancestorAdded(AncestorEvent e)
+		{
+			setHidden( false );
+		}
+
+		public void ancestorRemoved(AncestorEvent e)
+		{
+			setHidden( true );
+		}
+
+		public void ancestorMoved(AncestorEvent e) {}
+	}
+}
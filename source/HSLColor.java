@@ -1,4 +1,7 @@
 import java.awt.Color;
+import java.awt.image.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  *  The HSLColor class provides methods to manipulate HSL (Hue, Saturation
@@ -17,9 +20,20 @@ import java.awt.Color;
  *
  *  In particular the HSL color space makes it easier change the Tone or Shade
  *  of a color by adjusting the luminance value.
+ *
+ *  The static methods that convert or adjust int[] ARGB pixels or a whole
+ *  BufferedImage do not create a Color or an array for each pixel. The image
+ *  adjustments are done in parallel strips using the common ForkJoinPool and
+ *  give the same result as adjusting each pixel with a HSLColor.
  */
 public class HSLColor
 {
+	private final static int HUE = 0;
+	private final static int SATURATION = 1;
+	private final static int LUMINANCE = 2;
+	private final static int SHADE = 3;
+	private final static int TONE = 4;
+
 	private Color rgb;
 	private float[] hsl;
 	private float alpha;
@@ -250,10 +264,18 @@ public class HSLColor
 		//  Get RGB values in the range 0 - 1
 
 		float[] rgb = color.getRGBColorComponents( null );
-		float r = rgb[0];
-		float g = rgb[1];
-		float b = rgb[2];
+		float[] hsl = new float[3];
+		fromRGB(rgb[0], rgb[1], rgb[2], hsl, 0);
+
+		return hsl;
+	}
 
+	/*
+	 *  Convert RGB values in the range 0 - 1 to HSL values stored in the
+	 *  array starting at the offset
+	 */
+	private static void fromRGB(float r, float g, float b, float[] hsl, int offset)
+	{
 		//	Minimum and Maximum RGB values are used in the HSL calculations
 
 		float min = Math.min(r, Math.min(g, b));
@@ -287,7 +309,56 @@ public class HSLColor
 		else
 			s = (max - min) / (2 - max - min);
 
-		return new float[] {h, s * 100, l * 100};
+		hsl[offset] = h;
+		hsl[offset + 1] = s * 100;
+		hsl[offset + 2] = l * 100;
+	}
+
+	/**
+	 *  Convert ARGB pixels to HSL values. The 3 HSL values of each pixel are
+	 *  stored consecutively in the hsl array. The alpha is ignored.
+	 *
+	 *  @param argb      the pixels
+	 *  @param offset    the index of the first pixel
+	 *  @param hsl       the array to receive the HSL values
+	 *  @param hslOffset the index of the Hue of the first pixel
+	 *  @param length    the number of pixels to convert
+	 */
+	public static void fromRGB(int[] argb, int offset, float[] hsl, int hslOffset, int length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			int pixel = argb[offset + i];
+			fromRGB(
+				((pixel >> 16) & 0xff) / 255f,
+				((pixel >> 8) & 0xff) / 255f,
+				(pixel & 0xff) / 255f,
+				hsl, hslOffset + i * 3);
+		}
+	}
+
+	/**
+	 *  Convert HSL values to ARGB pixels. The 3 HSL values of each pixel are
+	 *  stored consecutively in the hsl array. The alpha of each pixel is not
+	 *  changed, so pixels can be converted to HSL, changed and converted back.
+	 *
+	 *  @param hsl       the HSL values
+	 *  @param hslOffset the index of the Hue of the first pixel
+	 *  @param argb      the pixels to receive the RGB values
+	 *  @param offset    the index of the first pixel
+	 *  @param length    the number of pixels to convert
+	 */
+	public static void toRGB(float[] hsl, int hslOffset, int[] argb, int offset, int length)
+	{
+		float[] rgb = new float[3];
+
+		for (int i = 0; i < length; i++)
+		{
+			int index = hslOffset + i * 3;
+			checkRange(hsl[index + 1], hsl[index + 2], 1.0f);
+			toRGB(hsl[index], hsl[index + 1], hsl[index + 2], rgb);
+			argb[offset + i] = (argb[offset + i] & 0xff000000) | pack( rgb );
+		}
 	}
 
 	/**
@@ -346,6 +417,18 @@ public class HSLColor
 	 *  @returns the RGB Color object
 	 */
 	public static Color toRGB(float h, float s, float l, float alpha)
+	{
+		checkRange(s, l, alpha);
+
+		float[] rgb = new float[3];
+		toRGB(h, s, l, rgb);
+
+		return new Color(rgb[0], rgb[1], rgb[2], alpha);
+//        return new Color((int)(r*255+0.5), (int)(g*255+0.5), (int)(b*255+0.5), (int)(alpha*255+0.5));
+
+	}
+
+	private static void checkRange(float s, float l, float alpha)
 	{
 		if (s <0.0f || s > 100.0f)
 		{
@@ -364,7 +447,13 @@ public class HSLColor
 			String message = "Color parameter outside of expected range - Alpha";
 			throw new IllegalArgumentException( message );
 		}
+	}
 
+	/*
+	 *  Convert HSL values to RGB values in the range 0 - 1
+	 */
+	private static void toRGB(float h, float s, float l, float[] rgb)
+	{
 		//  Formula needs all values between 0 - 1.
 
 		h = h % 360.0f;
@@ -385,13 +474,280 @@ public class HSLColor
 		float g = Math.max(0, HueToRGB(p, q, h));
 		float b = Math.max(0, HueToRGB(p, q, h - (1.0f / 3.0f)));
 
-		r = Math.min(r, 1.0f);
-		g = Math.min(g, 1.0f);
-		b = Math.min(b, 1.0f);
+		rgb[0] = Math.min(r, 1.0f);
+		rgb[1] = Math.min(g, 1.0f);
+		rgb[2] = Math.min(b, 1.0f);
+	}
 
-		return new Color(r, g, b, alpha);
-//        return new Color((int)(r*255+0.5), (int)(g*255+0.5), (int)(b*255+0.5), (int)(alpha*255+0.5));
+	/*
+	 *  Pack RGB values in the range 0 - 1 the same way as a Color does
+	 */
+	private static int pack(float[] rgb)
+	{
+		return ((int)(rgb[0] * 255 + 0.5) << 16)
+		     | ((int)(rgb[1] * 255 + 0.5) << 8)
+		     |  (int)(rgb[2] * 255 + 0.5);
+	}
+
+	/**
+	 *  Change the Hue of every pixel of the image. The degrees specified is
+	 *  an absolute value.
+	 *
+	 *  @param image   the image to be changed
+	 *  @param degrees the Hue value between 0 - 360
+	 */
+	public static void adjustHue(BufferedImage image, float degrees)
+	{
+		adjust(image, HUE, degrees);
+	}
+
+	/**
+	 *  Change the Hue of ARGB pixels. The degrees specified is an absolute
+	 *  value.
+	 *
+	 *  @param argb    the pixels to be changed
+	 *  @param offset  the index of the first pixel
+	 *  @param length  the number of pixels to change
+	 *  @param degrees the Hue value between 0 - 360
+	 */
+	public static void adjustHue(int[] argb, int offset, int length, float degrees)
+	{
+		adjust(argb, offset, length, HUE, degrees);
+	}
+
+	/**
+	 *  Change the Luminance of every pixel of the image. The percent specified
+	 *  is an absolute value.
+	 *
+	 *  @param image   the image to be changed
+	 *  @param percent the Luminance value between 0 - 100
+	 */
+	public static void adjustLuminance(BufferedImage image, float percent)
+	{
+		checkRange(0.0f, percent, 1.0f);
+		adjust(image, LUMINANCE, percent);
+	}
+
+	/**
+	 *  Change the Luminance of ARGB pixels. The percent specified is an
+	 *  absolute value.
+	 *
+	 *  @param argb    the pixels to be changed
+	 *  @param offset  the index of the first pixel
+	 *  @param length  the number of pixels to change
+	 *  @param percent the Luminance value between 0 - 100
+	 */
+	public static void adjustLuminance(int[] argb, int offset, int length, float percent)
+	{
+		checkRange(0.0f, percent, 1.0f);
+		adjust(argb, offset, length, LUMINANCE, percent);
+	}
+
+	/**
+	 *  Change the Saturation of every pixel of the image. The percent
+	 *  specified is an absolute value.
+	 *
+	 *  @param image   the image to be changed
+	 *  @param percent the Saturation value between 0 - 100
+	 */
+	public static void adjustSaturation(BufferedImage image, float percent)
+	{
+		checkRange(percent, 0.0f, 1.0f);
+		adjust(image, SATURATION, percent);
+	}
 
+	/**
+	 *  Change the Saturation of ARGB pixels. The percent specified is an
+	 *  absolute value.
+	 *
+	 *  @param argb    the pixels to be changed
+	 *  @param offset  the index of the first pixel
+	 *  @param length  the number of pixels to change
+	 *  @param percent the Saturation value between 0 - 100
+	 */
+	public static void adjustSaturation(int[] argb, int offset, int length, float percent)
+	{
+		checkRange(percent, 0.0f, 1.0f);
+		adjust(argb, offset, length, SATURATION, percent);
+	}
+
+	/**
+	 *  Darken every pixel of the image. The percent specified is a relative
+	 *  value. The Luminance is limited to the range 0 - 100.
+	 *
+	 *  @param image   the image to be changed
+	 *  @param percent the value between 0 - 100
+	 */
+	public static void adjustShade(BufferedImage image, float percent)
+	{
+		adjust(image, SHADE, (100.0f - percent) / 100.0f);
+	}
+
+	/**
+	 *  Darken ARGB pixels. The percent specified is a relative value. The
+	 *  Luminance is limited to the range 0 - 100.
+	 *
+	 *  @param argb    the pixels to be changed
+	 *  @param offset  the index of the first pixel
+	 *  @param length  the number of pixels to change
+	 *  @param percent the value between 0 - 100
+	 */
+	public static void adjustShade(int[] argb, int offset, int length, float percent)
+	{
+		adjust(argb, offset, length, SHADE, (100.0f - percent) / 100.0f);
+	}
+
+	/**
+	 *  Lighten every pixel of the image. The percent specified is a relative
+	 *  value. The Luminance is limited to the range 0 - 100.
+	 *
+	 *  @param image   the image to be changed
+	 *  @param percent the value between 0 - 100
+	 */
+	public static void adjustTone(BufferedImage image, float percent)
+	{
+		adjust(image, TONE, (100.0f + percent) / 100.0f);
+	}
+
+	/**
+	 *  Lighten ARGB pixels. The percent specified is a relative value. The
+	 *  Luminance is limited to the range 0 - 100.
+	 *
+	 *  @param argb    the pixels to be changed
+	 *  @param offset  the index of the first pixel
+	 *  @param length  the number of pixels to change
+	 *  @param percent the value between 0 - 100
+	 */
+	public static void adjustTone(int[] argb, int offset, int length, float percent)
+	{
+		adjust(argb, offset, length, TONE, (100.0f + percent) / 100.0f);
+	}
+
+	private static void adjust(int[] argb, int offset, int length, int adjustment, float value)
+	{
+		ForkJoinPool.commonPool().invoke( new AdjustTask(argb, null, offset, offset + length, adjustment, value) );
+	}
+
+	/*
+	 *  The image is changed a strip of rows at a time. Its DataBuffer isn't
+	 *  used directly, as that would stop the image from being accelerated.
+	 */
+	private static void adjust(BufferedImage image, int adjustment, float value)
+	{
+		ForkJoinPool.commonPool().invoke( new AdjustTask(null, image, 0, image.getHeight(), adjustment, value) );
+	}
+
+	/*
+	 *  Adjust a single pixel, using the arrays provided for the HSL and RGB
+	 *  values
+	 */
+	private static int adjust(int pixel, int adjustment, float value, float[] hsl, float[] rgb)
+	{
+		fromRGB(
+			((pixel >> 16) & 0xff) / 255f,
+			((pixel >> 8) & 0xff) / 255f,
+			(pixel & 0xff) / 255f,
+			hsl, 0);
+
+		float h = hsl[0];
+		float s = hsl[1];
+		float l = hsl[2];
+
+		switch (adjustment)
+		{
+			case HUE: h = value; break;
+			case SATURATION: s = value; break;
+			case LUMINANCE: l = value; break;
+			case SHADE: l = Math.min(100.0f, Math.max(0.0f, l * value)); break;
+			case TONE: l = Math.max(0.0f, Math.min(100.0f, l * value)); break;
+		}
+
+		toRGB(h, s, l, rgb);
+
+		return (pixel & 0xff000000) | pack( rgb );
+	}
+
+	/*
+	 *  Adjust a range of pixels of an array, or a range of rows of an image,
+	 *  splitting the range in half until the strips are small enough
+	 */
+	private static class AdjustTask extends RecursiveAction
+	{
+		private final static int STRIP_SIZE = 16 * 1024;
+
+		private int[] argb;
+		private BufferedImage image;
+		private int start;
+		private int end;
+		private int adjustment;
+		private float value;
+
+		AdjustTask(int[] argb, BufferedImage image, int start, int end, int adjustment, float value)
+		{
+			this.argb = argb;
+			this.image = image;
+			this.start = start;
+			this.end = end;
+			this.adjustment = adjustment;
+			this.value = value;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int pixelsPerUnit = image == null ? 1 : image.getWidth();
+
+			if ((long)(end - start) * pixelsPerUnit <= STRIP_SIZE || end - start < 2)
+			{
+				adjustStrip();
+				return;
+			}
+
+			int middle = (start + end) >>> 1;
+			invokeAll(
+				new AdjustTask(argb, image, start, middle, adjustment, value),
+				new AdjustTask(argb, image, middle, end, adjustment, value));
+		}
+
+		private void adjustStrip()
+		{
+			float[] hsl = new float[3];
+			float[] rgb = new float[3];
+
+			if (image == null)
+			{
+				for (int i = start; i < end; i++)
+					argb[i] = adjust(argb[i], adjustment, value, hsl, rgb);
+
+				return;
+			}
+
+			int width = image.getWidth();
+			int rows = end - start;
+			int type = image.getType();
+
+			//  The pixels of an int RGB image are copied without converting them
+
+			if (type == BufferedImage.TYPE_INT_ARGB
+			||  type == BufferedImage.TYPE_INT_RGB)
+			{
+				WritableRaster raster = image.getRaster();
+				int[] pixels = (int[])raster.getDataElements(0, start, width, rows, null);
+
+				for (int i = 0; i < pixels.length; i++)
+					pixels[i] = adjust(pixels[i], adjustment, value, hsl, rgb);
+
+				raster.setDataElements(0, start, width, rows, pixels);
+				return;
+			}
+
+			int[] pixels = image.getRGB(0, start, width, rows, null, 0, width);
+
+			for (int i = 0; i < pixels.length; i++)
+				pixels[i] = adjust(pixels[i], adjustment, value, hsl, rgb);
+
+			image.setRGB(0, start, width, rows, pixels, 0, width);
+		}
 	}
 
 	private static float HueToRGB(float p, float q, float h)
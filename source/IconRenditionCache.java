@@ -0,0 +1,270 @@
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+
+/**
+ *  The IconRenditionCache holds prerendered images of wrapper icons like the
+ *  RotatedIcon, AlphaIcon and AlphaImageIcon. Once a rendition has been
+ *  created, painting the wrapper icon is reduced to a single drawImage(...)
+ *  instead of applying a transform or composite and repainting the wrapped
+ *  Icon every time.
+ *
+ *  Renditions are keyed by the wrapped Icon, the variant of the wrapper
+ *  (for example the degrees of rotation or the alpha value) and the scale of
+ *  the Graphics context, so a rendition painted on a HiDPI screen remains
+ *  sharp. The wrapped Icon is weakly referenced, so renditions are discarded
+ *  once the wrapped Icon is no longer in use. A single shared cache is
+ *  available so the same rendition can be shared by many wrapper icons.
+ *
+ *  A rendition is recreated when the size of the wrapped Icon changes or when
+ *  the Image of a wrapped ImageIcon is replaced. An AnimatedIcon, or an
+ *  ImageIcon with an ImageObserver (typically an animated image), is never
+ *  cached. Any other change to the wrapped Icon requires an explicit
+ *  invalidate(...).
+ */
+public class IconRenditionCache
+{
+	private final static IconRenditionCache SHARED = new IconRenditionCache();
+
+	private Map<Icon, Map<RenditionKey, Rendition>> renditions =
+		new WeakHashMap<Icon, Map<RenditionKey, Rendition>>();
+
+	/**
+	 *  Get the cache shared by all wrapper icons.
+	 *
+	 *  @return the shared cache
+	 */
+	public static IconRenditionCache getSharedInstance()
+	{
+		return SHARED;
+	}
+
+	/**
+	 *  Test whether the rendition of the Icon can be cached at all.
+	 *
+	 *  @param icon  the wrapped Icon
+	 *  @return true when the Icon is static and can be cached, false otherwise
+	 */
+	public static boolean isCacheable(Icon icon)
+	{
+		if (icon == null
+		||  icon instanceof AnimatedIcon)
+			return false;
+
+		if (icon instanceof ImageIcon
+		&&  ((ImageIcon)icon).getImageObserver() != null)
+			return false;
+
+		return icon.getIconWidth() > 0 && icon.getIconHeight() > 0;
+	}
+
+	/**
+	 *  Paint the rendition of the wrapped Icon. The rendition is created, using
+	 *  the Renderer, when it does not exist or when it has become stale.
+	 *  Nothing is painted when the wrapped Icon can't be cached, or when the
+	 *  Graphics context is rotated or sheared, in which case the caller must
+	 *  paint the Icon itself.
+	 *
+	 *  @param icon      the wrapped Icon the rendition is based on
+	 *  @param variant   identifies the rendition, for example the degrees of
+	 *                   rotation. Must implement equals() and hashCode().
+	 *  @param width     the width of the rendition
+	 *  @param height    the height of the rendition
+	 *  @param c         the component on which the icon is painted
+	 *  @param g         the graphics context
+	 *  @param x         the X coordinate of the rendition's top-left corner
+	 *  @param y         the Y coordinate of the rendition's top-left corner
+	 *  @param renderer  paints the rendition with its top-left corner at 0, 0
+	 *  @return true when the rendition was painted, false otherwise
+	 */
+	public boolean paintIcon(Icon icon, Object variant, int width, int height,
+		Component c, Graphics g, int x, int y, Renderer renderer)
+	{
+		if (width <= 0 || height <= 0
+		||  ! isCacheable(icon))
+			return false;
+
+		AffineTransform at = ((Graphics2D)g).getTransform();
+		double scaleX = Math.abs( at.getScaleX() );
+		double scaleY = Math.abs( at.getScaleY() );
+
+		//  Rotated or sheared contexts can't be reduced to a simple scale
+
+		if (at.getShearX() != 0 || at.getShearY() != 0
+		||  scaleX == 0 || scaleY == 0)
+			return false;
+
+		RenditionKey key = new RenditionKey(variant, width, height, scaleX, scaleY);
+		Image source = icon instanceof ImageIcon ? ((ImageIcon)icon).getImage() : null;
+		Rendition rendition = getRendition(icon, key);
+
+		if (rendition == null
+		||  rendition.isStale(icon, source))
+		{
+			BufferedImage image = render(c, key, renderer);
+			rendition = new Rendition(image, icon.getIconWidth(), icon.getIconHeight(), source);
+			putRendition(icon, key, rendition);
+		}
+
+		g.drawImage(rendition.image, x, y, width, height, null);
+		return true;
+	}
+
+	/**
+	 *  Remove all renditions of the specified Icon. This must be invoked when
+	 *  a wrapped Icon has changed in a way the cache can't detect.
+	 *
+	 *  @param icon  the wrapped Icon
+	 */
+	public synchronized void invalidate(Icon icon)
+	{
+		renditions.remove( icon );
+	}
+
+	/**
+	 *  Remove all renditions from the cache.
+	 */
+	public synchronized void clear()
+	{
+		renditions.clear();
+	}
+
+	/*
+	 *  Create the image for a rendition, scaled to the device resolution
+	 */
+	private BufferedImage render(Component c, RenditionKey key, Renderer renderer)
+	{
+		int imageWidth = (int)Math.ceil(key.width * key.scaleX);
+		int imageHeight = (int)Math.ceil(key.height * key.scaleY);
+
+		GraphicsConfiguration gc = c == null ? null : c.getGraphicsConfiguration();
+
+		BufferedImage image = gc == null
+			? new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB_PRE)
+			: gc.createCompatibleImage(imageWidth, imageHeight, Transparency.TRANSLUCENT);
+
+		Graphics2D g2 = image.createGraphics();
+		g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g2.scale(key.scaleX, key.scaleY);
+		renderer.render(c, g2);
+		g2.dispose();
+
+		return image;
+	}
+
+	private synchronized Rendition getRendition(Icon icon, RenditionKey key)
+	{
+		Map<RenditionKey, Rendition> variants = renditions.get( icon );
+
+		return variants == null ? null : variants.get( key );
+	}
+
+	private synchronized void putRendition(Icon icon, RenditionKey key, Rendition rendition)
+	{
+		Map<RenditionKey, Rendition> variants = renditions.get( icon );
+
+		if (variants == null)
+		{
+			variants = new HashMap<RenditionKey, Rendition>();
+			renditions.put(icon, variants);
+		}
+
+		variants.put(key, rendition);
+	}
+
+	/**
+	 *  Paints the rendition of a wrapper icon. The top-left corner of the
+	 *  rendition is at 0, 0 of the Graphics context.
+	 */
+	public interface Renderer
+	{
+		void render(Component c, Graphics2D g2);
+	}
+
+	/*
+	 *  Identifies a single rendition of a wrapped Icon
+	 */
+	private static class RenditionKey
+	{
+		private final Object variant;
+		private final int width;
+		private final int height;
+		private final double scaleX;
+		private final double scaleY;
+
+		RenditionKey(Object variant, int width, int height, double scaleX, double scaleY)
+		{
+			this.variant = variant;
+			this.width = width;
+			this.height = height;
+			this.scaleX = scaleX;
+			this.scaleY = scaleY;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o) return true;
+
+			if (! (o instanceof RenditionKey)) return false;
+
+			RenditionKey key = (RenditionKey)o;
+
+			return width == key.width
+				&& height == key.height
+				&& Double.compare(scaleX, key.scaleX) == 0
+				&& Double.compare(scaleY, key.scaleY) == 0
+				&& (variant == null ? key.variant == null : variant.equals(key.variant));
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = variant == null ? 0 : variant.hashCode();
+			hash = 31 * hash + width;
+			hash = 31 * hash + height;
+			hash = 31 * hash + Double.hashCode(scaleX);
+			hash = 31 * hash + Double.hashCode(scaleY);
+			return hash;
+		}
+	}
+
+	/*
+	 *  The prerendered image along with the state of the wrapped Icon at the
+	 *  time the image was created. The source Image is only compared by
+	 *  identity.
+	 */
+	private static class Rendition
+	{
+		private final BufferedImage image;
+		private final int iconWidth;
+		private final int iconHeight;
+		private final Image source;
+
+		Rendition(BufferedImage image, int iconWidth, int iconHeight, Image source)
+		{
+			this.image = image;
+			this.iconWidth = iconWidth;
+			this.iconHeight = iconHeight;
+			this.source = source;
+		}
+
+		boolean isStale(Icon icon, Image source)
+		{
+			return icon.getIconWidth() != iconWidth
+				|| icon.getIconHeight() != iconHeight
+				|| this.source != source;
+		}
+	}
+}
@@ -3,6 +3,12 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
 import javax.swing.AbstractButton;
 import javax.swing.DefaultButtonModel;
 import javax.swing.Icon;
@@ -33,6 +39,13 @@ import javax.swing.table.TableModel;
  * <LI> All else failing, the icon is rendered as a crossed rectangle of the
  * same size as the original icon, or the default icon if supplied as a
  * parameter to the constructor.</LI>
+ * </UL>
+ * The image painted for an icon is cached, separately for the selected and
+ * unselected state, until the icon is garbage collected.  The Component used
+ * to paint the icons of a class that throws a ClassCastException is also
+ * cached, so the exception is only thrown once for each class of icon.  The
+ * static method createImageIcon makes the same technique available to other
+ * classes, such as UIManagerDefaults.SafeIcon.
  * <P>
  * Extends DefaultTableCellRenderer
  *
@@ -49,6 +62,18 @@ public class IconTableCellRenderer extends DefaultTableCellRenderer {
     button.setModel(new DefaultButtonModel());
   }
 
+  // the Component used to paint the icons of a class, when it isn't the
+  // Component passed to createImageIcon
+  private static Map<Class<?>, JComponent> substitutes =
+          new WeakHashMap<Class<?>, JComponent>();
+  private static final JComponent NO_SUBSTITUTE = new JComponent() {
+  };
+
+  // the unselected and selected image of each icon, keyed by identity since
+  // equal icons, like two ImageIcons of the same Image, may paint differently
+  private Map<IconKey, Icon[]> snapshots = new HashMap<IconKey, Icon[]>();
+  private ReferenceQueue<Icon> collected = new ReferenceQueue<Icon>();
+
   /**
    * Constructs an IconTableCellRenderer which will use a crossed rectangle as
    * default icon
@@ -76,65 +101,150 @@ public class IconTableCellRenderer extends DefaultTableCellRenderer {
           Object value, boolean isSelected, boolean hasFocus,
           int row, int column) {
     Icon icon = (Icon) value;
-    setIcon(null);
     setText("width=" + icon.getIconWidth()
             + ", height=" + icon.getIconHeight());
     setBackground(getCorrectBackground(table, isSelected));
 
-    try {
-      createIcon(icon, this);
-    } catch (ClassCastException cce) {
-      // some paintIcon implementations cast the component to a
-      // specific subclass of JComponent
-      try {
-        String className = cce.getMessage();
-        className = className.substring(className.lastIndexOf(" ") + 1);
-        Class clazz = Class.forName(className);
-        createIcon(icon, (JComponent) clazz.newInstance());
-      } catch (InstantiationException ie) {
-        // OceanTheme.IFIcon#paintIcon casts the component to
-        // AbstractButton
-        try {
-          createIcon(icon, button);
-        } catch (ClassCastException cce2) {
-        } catch (InstantiationException ie2) {
-        }
-      } catch (IllegalAccessException iae) {
-      } catch (ClassNotFoundException cnfe) {
-      }
-    } catch (InstantiationException ie3) {
+    for (Reference<? extends Icon> key; (key = collected.poll()) != null;) {
+      snapshots.remove(key);
+    }
+    Icon[] images = snapshots.get(new IconKey(icon, null));
+    if (images == null) {
+      images = new Icon[2];
+      snapshots.put(new IconKey(icon, collected), images);
+    }
+    int index = isSelected ? 1 : 0;
+    if (images[index] == null) {
+      images[index] = createSnapshot(icon);
     }
-    if (getIcon() == null) {
+    setIcon(images[index]);
+
+    return this;
+  }
+
+  /**
+   * Paints the icon to a BufferedImage for use as the renderer's Icon, or
+   * paints the default icon if the icon can't be painted.
+   *
+   * @param icon the icon to be painted
+   * @return the image of the icon
+   */
+  private Icon createSnapshot(Icon icon) {
+    Icon image = createImageIcon(icon, this, 2);
+    if (image == null) {
       try {
-        createIcon(defaultIcon == null
+        image = createImageIcon(defaultIcon == null
                 ? new XIcon(icon.getIconWidth(), icon.getIconHeight())
-                : defaultIcon, null);
+                : defaultIcon, null, 2);
       } catch (Exception ex) {
       }
     }
-    setBackground(getCorrectBackground(table, isSelected));
-
-    return this;
+    return image;
   }
 
   /**
-   * Paints the icon to a BufferedImage for use as the renderer's Icon.
-   * Also sets the height of the table row to accommodate the icon.
+   * Paints an icon to a BufferedImage, first using the supplied component as
+   * the Component parameter of paintIcon.  In case of a ClassCastException a
+   * Component of the class required by the icon is used instead, and is
+   * remembered for the class of the icon, so that later icons of the same
+   * class are painted with it directly.
    *
-   * @param table the JTable
-   * @param row row number
    * @param icon the icon to be painted
-   * @param component the component it represents
-   * @throws java.lang.ClassCastException may originate in paintIcon
-   * @throws java.lang.InstantiationException for a default abstract class
+   * @param component the component it represents, or null to use a
+   * substitute only
+   * @param inset the space to leave above and to the left of the icon
+   * @return an ImageIcon of the painted icon, or null if the icon can't be
+   * painted
    */
-  private void createIcon(Icon icon, JComponent component)
-          throws ClassCastException, InstantiationException {
-    BufferedImage image = new BufferedImage(icon.getIconWidth() + 2,
-            icon.getIconHeight() + 2, BufferedImage.TYPE_INT_ARGB);
+  public static ImageIcon createImageIcon(Icon icon, JComponent component,
+          int inset) {
+    Class<?> iconClass = icon.getClass();
+    JComponent substitute = substitutes.get(iconClass);
+    if (substitute == NO_SUBSTITUTE) {
+      return null;
+    }
+    if (substitute == null && component != null) {
+      try {
+        return paintImage(icon, component, inset);
+      } catch (ClassCastException cce) {
+        // some paintIcon implementations cast the component to a
+        // specific subclass of JComponent
+        substitute = createSubstitute(cce);
+      }
+      if (substitute == NO_SUBSTITUTE) {
+        substitutes.put(iconClass, NO_SUBSTITUTE);
+        return null;
+      }
+      try {
+        ImageIcon image = paintImage(icon, substitute, inset);
+        substitutes.put(iconClass, substitute);
+        return image;
+      } catch (RuntimeException re) {
+        substitutes.put(iconClass, NO_SUBSTITUTE);
+        return null;
+      }
+    }
+    try {
+      return paintImage(icon, substitute == null ? button : substitute, inset);
+    } catch (RuntimeException re) {
+      return null;
+    }
+  }
+
+  private static ImageIcon paintImage(Icon icon, JComponent component,
+          int inset) {
+    BufferedImage image = new BufferedImage(icon.getIconWidth() + inset,
+            icon.getIconHeight() + inset, BufferedImage.TYPE_INT_ARGB);
     Graphics g = image.createGraphics();
-    icon.paintIcon(component, g, 2, 2);
-    setIcon(new ImageIcon(image));
+    try {
+      icon.paintIcon(component, g, inset, inset);
+    } finally {
+      g.dispose();
+    }
+    return new ImageIcon(image);
+  }
+
+  /**
+   * Instantiates a Component of the class named in the exception's message.
+   * OceanTheme.IFIcon#paintIcon casts the component to AbstractButton, which
+   * is abstract, so an abstract class is replaced by a concretized
+   * AbstractButton.
+   *
+   * @param cce the exception thrown by paintIcon
+   * @return the component, or NO_SUBSTITUTE
+   */
+  private static JComponent createSubstitute(ClassCastException cce) {
+    String className = cce.getMessage();
+    if (className == null) {
+      return NO_SUBSTITUTE;
+    }
+    // "class A cannot be cast to class B (...)" or "A cannot be cast to B"
+    int index = className.indexOf("cast to ");
+    if (index >= 0) {
+      className = className.substring(index + 8);
+      if (className.startsWith("class ")) {
+        className = className.substring(6);
+      }
+      if (className.indexOf(" ") >= 0) {
+        className = className.substring(0, className.indexOf(" "));
+      }
+    } else {
+      className = className.substring(className.lastIndexOf(" ") + 1);
+    }
+    try {
+      Class<?> clazz = Class.forName(className);
+      if (!JComponent.class.isAssignableFrom(clazz)) {
+        return NO_SUBSTITUTE;
+      }
+      if (java.lang.reflect.Modifier.isAbstract(clazz.getModifiers())) {
+        return button;
+      }
+      return (JComponent) clazz.newInstance();
+    } catch (InstantiationException ie) {
+      return button;
+    } catch (Exception ex) {
+      return NO_SUBSTITUTE;
+    }
   }
 
   /**
@@ -148,19 +258,53 @@ public class IconTableCellRenderer extends DefaultTableCellRenderer {
     return isSelected ? table.getSelectionBackground() : table.getBackground();
   }
 
+  /**
+   * Sets the height of each row to accommodate the icons in the columns that
+   * use an IconTableCellRenderer.  The heights of all rows are computed in a
+   * single pass, and only the rows whose height changes are updated.  When
+   * all the rows need the same height it is set once for the table.
+   *
+   * @param table the JTable
+   */
   public static void setRowHeightsForIcons(JTable table) {
+    if (!(table.getDefaultRenderer(Icon.class) instanceof IconTableCellRenderer)) {
+      return;
+    }
     TableModel model = table.getModel();
+    int rowCount = table.getRowCount();
+    int[] heights = new int[rowCount];
+    for (int row = 0; row < rowCount; row++) {
+      heights[row] = table.getRowHeight(row);
+    }
 
     for (int col = 0; col < table.getColumnCount(); col++) {
-      if (Icon.class.isAssignableFrom(table.getColumnClass(col))
-              && table.getDefaultRenderer(Icon.class) instanceof IconTableCellRenderer) {
-        for (int row = 0; row < model.getRowCount(); row++) {
-          Icon icon = (Icon) model.getValueAt(row, col);
-          table.setRowHeight(table.convertRowIndexToView(row),
-                  Math.max(table.getRowHeight(row), icon.getIconHeight() + 2));
+      if (Icon.class.isAssignableFrom(table.getColumnClass(col))) {
+        int modelColumn = table.convertColumnIndexToModel(col);
+        for (int row = 0; row < rowCount; row++) {
+          Icon icon = (Icon) model.getValueAt(
+                  table.convertRowIndexToModel(row), modelColumn);
+          if (icon != null) {
+            heights[row] = Math.max(heights[row], icon.getIconHeight() + 2);
+          }
         }
       }
     }
+
+    boolean uniform = true;
+    for (int row = 1; row < rowCount && uniform; row++) {
+      uniform = heights[row] == heights[0];
+    }
+    if (uniform) {
+      if (rowCount > 0 && heights[0] != table.getRowHeight()) {
+        table.setRowHeight(heights[0]);
+      }
+      return;
+    }
+    for (int row = 0; row < rowCount; row++) {
+      if (table.getRowHeight(row) != heights[row]) {
+        table.setRowHeight(row, heights[row]);
+      }
+    }
   }
 
   /**
@@ -191,4 +335,33 @@ public class IconTableCellRenderer extends DefaultTableCellRenderer {
       return height;
     }
   }
+
+  // a weak reference to an icon that is equal only to a reference to the same
+  // icon
+  private static class IconKey extends WeakReference<Icon> {
+
+    private final int hash;
+
+    IconKey(Icon icon, ReferenceQueue<Icon> queue) {
+      super(icon, queue);
+      hash = System.identityHashCode(icon);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof IconKey)) {
+        return false;
+      }
+      Icon icon = get();
+      return icon != null && icon == ((IconKey) obj).get();
+    }
+  }
 }
@@ -5,7 +5,7 @@ import javax.swing.*;
 /*
  *  A class that monitors inactivity in an application.
  *
- *  It does this by using a Swing Timer and by listening for specified
+ *  It does this by using the shared FrameScheduler and by listening for specified
  *  AWT events. When an event is received the Timer is restarted.
  *  If no event is received during the specified time interval then the
  *  timer will fire and invoke the specified Action.
@@ -37,7 +37,8 @@ class InactivityListener implements ActionListener, AWTEventListener
 	private Action action;
 	private int interval;
 	private long eventMask;
-	private Timer timer = new Timer(0, this);
+	private FrameScheduler.Subscription timer =
+		FrameScheduler.getSharedInstance().subscribe(0, this);
 
 	/*
 	 *  Use a default inactivity interval of 1 minute and listen for
@@ -1,5 +1,7 @@
 import java.awt.*;
+import java.util.*;
 import javax.swing.*;
+import javax.swing.event.*;
 import javax.swing.plaf.basic.*;
 
 /*
@@ -10,6 +12,12 @@ import javax.swing.plaf.basic.*;
  *  implemented. This method will return a String to be rendered in the
  *  JComboBox. The same String will be used to do key selection of an
  *  item in the ComboBoxModel.
+ *
+ *  For large models a prefix index can be enabled. The lower cased display
+ *  values are then sorted once, and each key selection is done with a binary
+ *  search instead of getting the display value of every item. The index is
+ *  built when it is first needed and is discarded whenever the model fires a
+ *  ListDataEvent.
  */
 abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 	implements JComboBox.KeySelectionManager
@@ -22,6 +30,9 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 	private long time;
 	private String prefix = "";
 
+	private boolean prefixIndexEnabled;
+	private PrefixIndex prefixIndex;
+
 	public KeySelectionRenderer(JComboBox comboBox)
 	{
 		comboBox.setRenderer( this );
@@ -39,6 +50,33 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 	*/
 	public abstract String getDisplayValue(Object item);
 
+	/**
+	 *  Get the prefix index enabled property
+	 *
+	 *  @return the prefix index enabled property
+	 */
+	public boolean isPrefixIndexEnabled()
+	{
+		return prefixIndexEnabled;
+	}
+
+	/**
+	 *  Use an index of the display values to find the next match. Useful for
+	 *  models with many items.
+	 *
+	 *  @param prefixIndexEnabled true to use a prefix index
+	 */
+	public void setPrefixIndexEnabled(boolean prefixIndexEnabled)
+	{
+		this.prefixIndexEnabled = prefixIndexEnabled;
+
+		if (! prefixIndexEnabled && prefixIndex != null)
+		{
+			prefixIndex.dispose();
+			prefixIndex = null;
+		}
+	}
+
 	//  Implement the renderer
 
 	@Override
@@ -62,13 +100,19 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 	{
 		time = System.currentTimeMillis();
 
+		PrefixIndex index = getPrefixIndex( model );
+
 		//  Get the index of the currently selected item
 
 		int size = model.getSize();
 		int startIndex = -1;
 		Object selectedItem = model.getSelectedItem();
 
-		if (selectedItem != null)
+		if (selectedItem != null && index != null)
+		{
+			startIndex = index.indexOf( selectedItem );
+		}
+		else if (selectedItem != null)
 		{
 			for (int i = 0; i < size; i++)
 			{
@@ -112,15 +156,38 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 			startIndex = 0;
 		}
 
-		int index = getNextMatch(prefix, startIndex, size, model);
+		if (index != null)
+		{
+			return index.getNextMatch(prefix, startIndex);
+		}
+
+		int match = getNextMatch(prefix, startIndex, size, model);
 
-		if (index < 0)
+		if (match < 0)
 		{
 			// wrap
-			index = getNextMatch(prefix, 0, startIndex, model);
+			match = getNextMatch(prefix, 0, startIndex, model);
+		}
+
+		return match;
+	}
+
+	/*
+	**  Get the index for the model, building it when necessary
+	*/
+	private PrefixIndex getPrefixIndex(ComboBoxModel model)
+	{
+		if (! prefixIndexEnabled) return null;
+
+		if (prefixIndex == null || ! prefixIndex.isValid( model ))
+		{
+			if (prefixIndex != null)
+				prefixIndex.dispose();
+
+			prefixIndex = new PrefixIndex( model );
 		}
 
-		return index;
+		return prefixIndex;
 	}
 
 	/*
@@ -145,4 +212,230 @@ abstract class KeySelectionRenderer extends BasicComboBoxRenderer
 
 		return -1;
 	}
+
+	/*
+	**  The lower cased display values of the model, sorted, with the position
+	**  of each value in the model. All the values starting with a prefix are
+	**  adjacent, so they are found with two binary searches.
+	*/
+	private class PrefixIndex implements ListDataListener
+	{
+		private ComboBoxModel model;
+		private boolean valid = true;
+		private String[] values;
+		private int[][] positions;
+		private int leaves;
+		private Map<Object, Integer> items = new IdentityHashMap<Object, Integer>();
+
+		public PrefixIndex(ComboBoxModel model)
+		{
+			this.model = model;
+
+			int size = model.getSize();
+			final String[] displayValues = new String[size];
+			Integer[] order = new Integer[size];
+			int count = 0;
+
+			for (int i = 0; i < size; i++)
+			{
+				Object item = model.getElementAt(i);
+
+				if (item == null) continue;
+
+				if (! items.containsKey( item ))
+					items.put(item, i);
+
+				displayValues[i] = getDisplayValue( item ).toLowerCase();
+				order[count++] = i;
+			}
+
+			//  Sort by display value, and by position for equal values
+
+			Arrays.sort(order, 0, count, new Comparator<Integer>()
+			{
+				public int compare(Integer i1, Integer i2)
+				{
+					int result = displayValues[i1].compareTo( displayValues[i2] );
+					return result != 0 ? result : i1.compareTo( i2 );
+				}
+			});
+
+			//  The positions are kept in a segment tree over the sorted values.
+			//  Each node holds the sorted positions of its range of values.
+
+			values = new String[count];
+			leaves = 1;
+
+			while (leaves < count)
+				leaves <<= 1;
+
+			positions = new int[leaves * 2][];
+
+			for (int i = 0; i < leaves; i++)
+			{
+				if (i < count)
+				{
+					values[i] = displayValues[order[i]];
+					positions[leaves + i] = new int[] { order[i] };
+				}
+				else
+					positions[leaves + i] = new int[0];
+			}
+
+			for (int node = leaves - 1; node > 0; node--)
+			{
+				positions[node] = merge(positions[node * 2], positions[node * 2 + 1]);
+			}
+
+			model.addListDataListener( this );
+		}
+
+		public boolean isValid(ComboBoxModel model)
+		{
+			return valid && this.model == model;
+		}
+
+		public void dispose()
+		{
+			valid = false;
+			model.removeListDataListener( this );
+		}
+
+		public int indexOf(Object item)
+		{
+			Integer position = items.get( item );
+			return position == null ? -1 : position.intValue();
+		}
+
+		/*
+		**  Find the first item starting with the prefix at or after the start
+		**  position, wrapping to the first matching item in the model.
+		**
+		**  The values starting with the prefix are split into O(log n) nodes
+		**  of the segment tree, and each node is searched for its first
+		**  position at or after the start.
+		*/
+		public int getNextMatch(String prefix, int start)
+		{
+			int first = lowerBound( prefix );
+			int last = first;
+
+			//  Find the end of the values starting with the prefix
+
+			int high = values.length;
+
+			while (last < high)
+			{
+				int middle = (last + high) >>> 1;
+
+				if (values[middle].startsWith( prefix ))
+					last = middle + 1;
+				else
+					high = middle;
+			}
+
+			int next = -1;
+			int wrap = -1;
+
+			for (int left = first + leaves, right = last + leaves; left < right; left >>= 1, right >>= 1)
+			{
+				if ((left & 1) == 1)
+				{
+					int[] node = positions[left++];
+					next = min(next, ceiling(node, start));
+					wrap = min(wrap, node[0]);
+				}
+
+				if ((right & 1) == 1)
+				{
+					int[] node = positions[--right];
+					next = min(next, ceiling(node, start));
+					wrap = min(wrap, node[0]);
+				}
+			}
+
+			return next >= 0 ? next : wrap;
+		}
+
+		/*
+		**  The first of the sorted positions at or after the start, or -1
+		*/
+		private int ceiling(int[] node, int start)
+		{
+			int index = Arrays.binarySearch(node, start);
+
+			if (index < 0)
+				index = -index - 1;
+
+			return index < node.length ? node[index] : -1;
+		}
+
+		/*
+		**  The smaller of two positions, where -1 means no position
+		*/
+		private int min(int position1, int position2)
+		{
+			if (position1 < 0) return position2;
+			if (position2 < 0) return position1;
+
+			return Math.min(position1, position2);
+		}
+
+		private int[] merge(int[] node1, int[] node2)
+		{
+			int[] node = new int[node1.length + node2.length];
+			int i1 = 0;
+			int i2 = 0;
+
+			for (int i = 0; i < node.length; i++)
+			{
+				if (i2 == node2.length || (i1 < node1.length && node1[i1] < node2[i2]))
+					node[i] = node1[i1++];
+				else
+					node[i] = node2[i2++];
+			}
+
+			return node;
+		}
+
+		private int lowerBound(String prefix)
+		{
+			int low = 0;
+			int high = values.length;
+
+			while (low < high)
+			{
+				int middle = (low + high) >>> 1;
+
+				if (values[middle].compareTo( prefix ) < 0)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+
+			return low;
+		}
+
+//
+//  Implement the ListDataListener interface
+//
+		public void intervalAdded(ListDataEvent e)
+		{
+			dispose();
+		}
+
+		public void intervalRemoved(ListDataEvent e)
+		{
+			dispose();
+		}
+
+		/*
+		**  A change of the selected item (index -1) does not change the index
+		*/
+		public void contentsChanged(ListDataEvent e)
+		{
+			if (e.getIndex0() != -1 || e.getIndex1() != -1)
+				dispose();
+		}
+	}
 }
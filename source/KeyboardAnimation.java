@@ -11,15 +11,19 @@ public class KeyboardAnimation implements ActionListener
 	private final static String RELEASED = "released ";
 
 	private JComponent component;
-	private Timer timer;
+	private FrameScheduler.Subscription timer;
 	private Map<String, Point> pressedKeys = new HashMap<String, Point>();
 
 	public KeyboardAnimation(JComponent component, int delay)
 	{
 		this.component = component;
 
-		timer = new Timer(delay, this);
+		//  Catch up on missed moves so the speed doesn't vary with the load
+		//  on the Event Dispatch Thread
+
+		timer = FrameScheduler.getSharedInstance().subscribe(delay, this);
 		timer.setInitialDelay( 0 );
+		timer.setPolicy( FrameScheduler.Policy.CATCH_UP );
 	}
 
 	/*
@@ -0,0 +1,329 @@
+/*
+ * @(#)LazyComponentTreeModel.java	1.0
+ */
+//package darrylbu.model;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.JComponent;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
+
+/**
+ * A tree data model that reproduces the structure of a GUI like
+ * <code>ComponentTreeModel</code>, but creates the nodes for the children of
+ * a component only when they are first needed, typically when the node of
+ * the component is expanded. Opening a tree of a very large GUI therefore
+ * only costs as much as the nodes that are shown.
+ * <P>
+ * The children of a node are the <code>JComponent</code>s contained by its
+ * component, either directly or within containers that are not
+ * <code>JComponent</code>s, like an AWT <code>Panel</code>.
+ * <P>
+ * The model listens to every container whose children have been loaded, and
+ * to the AWT containers between it and its children. Components added to or
+ * removed from such a container are inserted into or removed from the model,
+ * and the corresponding <code>treeNodesInserted</code> or
+ * <code>treeNodesRemoved</code> event is fired, so the tree never needs to be
+ * rebuilt.
+ * <P>
+ * The nodes are <code>DefaultMutableTreeNode</code>s with the component as
+ * the user object, so a <code>ComponentTreeCellRenderer</code> can be used.
+ * Invoke <code>dispose()</code> when the model is no longer needed to remove
+ * its listeners from the components. The model must only be used on the
+ * Event Dispatch Thread.
+ * <P>
+ * Extends {@link DefaultTreeModel}.
+ *
+ * @see ComponentTreeModel
+ */
+public class LazyComponentTreeModel extends DefaultTreeModel
+      implements ContainerListener {
+
+   private final boolean nested;
+   private final Map<Container, ComponentNode> loaded =
+         new HashMap<Container, ComponentNode>();
+
+   /**
+    * Creates a new lazy tree model with a specified <code>JComponent</code>
+    * as the root, including nested components at all levels.
+    *
+    * @param container the <code>JComponent</code> to be placed at the root
+    * of the tree
+    */
+   public LazyComponentTreeModel(JComponent container) {
+      this(container, true);
+   }
+
+   /**
+    * Creates a new lazy tree model with a specified <code>JComponent</code>
+    * as the root, optionally including nested components.
+    *
+    * @param container the <code>JComponent</code> to be placed at the root
+    * of the tree
+    * @param nested <code>true</code> to include nested components,
+    * <code>false</code> to include only the children of the root
+    */
+   public LazyComponentTreeModel(JComponent container, boolean nested) {
+      super(null);
+      this.nested = nested;
+      setRoot(new ComponentNode(container, true));
+   }
+
+   /**
+    * Removes the listeners added to the components by this model.
+    */
+   public void dispose() {
+      for (Container container : loaded.keySet()) {
+         container.removeContainerListener(this);
+      }
+      loaded.clear();
+   }
+
+   /**
+    * Returns the node of a component, if it has been created.
+    *
+    * @param component a component in the hierarchy
+    * @return the node, or null if the node has not been created yet
+    */
+   public DefaultMutableTreeNode getNode(JComponent component) {
+      if (component == ((ComponentNode) getRoot()).getUserObject()) {
+         return (DefaultMutableTreeNode) getRoot();
+      }
+      ComponentNode parent = loaded.get(component.getParent());
+      return parent == null ? null : parent.findChild(component);
+   }
+
+   /**
+    * Inserts the nodes of the added components when the children of the
+    * container have been loaded.
+    *
+    * @param e the event
+    */
+   public void componentAdded(ContainerEvent e) {
+      ComponentNode parent = loaded.get(e.getContainer());
+      if (parent != null) {
+         parent.update();
+      }
+   }
+
+   /**
+    * Removes the nodes of the removed components when the children of the
+    * container have been loaded.
+    *
+    * @param e the event
+    */
+   public void componentRemoved(ContainerEvent e) {
+      ComponentNode parent = loaded.get(e.getContainer());
+      if (parent != null) {
+         parent.update();
+      }
+   }
+
+   /*
+    * Stop listening to the removed part of the hierarchy
+    */
+   private void unload(ComponentNode node) {
+      if (!node.isLoaded()) {
+         return;
+      }
+      node.stopListening();
+      for (int i = 0; i < node.getChildCount(); i++) {
+         unload((ComponentNode) node.getChildAt(i));
+      }
+   }
+
+   /*
+    * The JComponents contained by the container, directly or within AWT
+    * containers, which are added to <code>containers</code>. This is the
+    * only place where the children of a node are determined.
+    */
+   private static List<JComponent> getChildren(Container container,
+         List<Container> containers) {
+      List<JComponent> children = new ArrayList<JComponent>();
+      addChildren(children, containers, container);
+      return children;
+   }
+
+   private static void addChildren(List<JComponent> children,
+         List<Container> containers, Container container) {
+      if (containers != null) {
+         containers.add(container);
+      }
+      for (Component component : container.getComponents()) {
+         if (component instanceof JComponent) {
+            children.add((JComponent) component);
+         } else if (component instanceof Container) {
+            addChildren(children, containers, (Container) component);
+         }
+      }
+   }
+
+   /**
+    * A node that creates the nodes of its children the first time the
+    * children are requested.
+    */
+   private class ComponentNode extends DefaultMutableTreeNode {
+
+      private boolean loadable;
+      private boolean isLoaded;
+      private List<Container> containers = new ArrayList<Container>();
+
+      ComponentNode(JComponent component, boolean loadable) {
+         super(component);
+         this.loadable = loadable;
+      }
+
+      boolean isLoaded() {
+         return isLoaded;
+      }
+
+      private void load() {
+         if (isLoaded) {
+            return;
+         }
+         isLoaded = true;
+         if (!loadable) {
+            return;
+         }
+         for (JComponent child : listen()) {
+            super.insert(new ComponentNode(child, nested), super.getChildCount());
+         }
+      }
+
+      /*
+       * Listen to the component and the AWT containers below it, and return
+       * the children
+       */
+      private List<JComponent> listen() {
+         List<Container> listened = new ArrayList<Container>();
+         List<JComponent> children =
+               getChildren((Container) getUserObject(), listened);
+         stopListening();
+         for (Container container : listened) {
+            container.addContainerListener(LazyComponentTreeModel.this);
+            loaded.put(container, this);
+         }
+         containers = listened;
+         return children;
+      }
+
+      void stopListening() {
+         for (Container container : containers) {
+            container.removeContainerListener(LazyComponentTreeModel.this);
+            loaded.remove(container);
+         }
+         containers.clear();
+      }
+
+      /*
+       * Remove the nodes of the components that are no longer children and
+       * insert the nodes of the new children, firing the events
+       */
+      void update() {
+         List<JComponent> children = listen();
+         Map<Component, Boolean> current =
+               new IdentityHashMap<Component, Boolean>();
+         for (JComponent child : children) {
+            current.put(child, Boolean.TRUE);
+         }
+
+         List<ComponentNode> removed = new ArrayList<ComponentNode>();
+         List<Integer> removedIndexes = new ArrayList<Integer>();
+         for (int i = 0; i < super.getChildCount(); i++) {
+            ComponentNode node = (ComponentNode) super.getChildAt(i);
+            if (!current.containsKey(node.getUserObject())) {
+               removed.add(node);
+               removedIndexes.add(i);
+            }
+         }
+         if (!removed.isEmpty()) {
+            for (ComponentNode node : removed) {
+               super.remove(node);
+               unload(node);
+            }
+            nodesWereRemoved(this, toArray(removedIndexes), removed.toArray());
+         }
+
+         List<Integer> inserted = new ArrayList<Integer>();
+         for (int i = 0; i < children.size(); i++) {
+            if (i >= super.getChildCount()
+                  || ((ComponentNode) super.getChildAt(i)).getUserObject()
+                  != children.get(i)) {
+               super.insert(new ComponentNode(children.get(i), nested), i);
+               inserted.add(i);
+            }
+         }
+         if (!inserted.isEmpty()) {
+            nodesWereInserted(this, toArray(inserted));
+         }
+      }
+
+      private int[] toArray(List<Integer> list) {
+         int[] array = new int[list.size()];
+         for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+         }
+         return array;
+      }
+
+      ComponentNode findChild(Component component) {
+         if (!isLoaded) {
+            return null;
+         }
+         for (int i = 0; i < super.getChildCount(); i++) {
+            ComponentNode child = (ComponentNode) super.getChildAt(i);
+            if (child.getUserObject() == component) {
+               return child;
+            }
+         }
+         return null;
+      }
+
+      /**
+       * A node is a leaf when its component has no children, which is known
+       * without loading the children.
+       */
+      @Override
+      public boolean isLeaf() {
+         if (isLoaded) {
+            return super.getChildCount() == 0;
+         }
+         return !loadable
+               || getChildren((Container) getUserObject(), null).isEmpty();
+      }
+
+      @Override
+      public int getChildCount() {
+         load();
+         return super.getChildCount();
+      }
+
+      @Override
+      public TreeNode getChildAt(int index) {
+         load();
+         return super.getChildAt(index);
+      }
+
+      @Override
+      public int getIndex(TreeNode node) {
+         load();
+         return super.getIndex(node);
+      }
+
+      @Override
+      public Enumeration<TreeNode> children() {
+         load();
+         return super.children();
+      }
+   }
+}
@@ -1,5 +1,7 @@
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.beans.*;
 import javax.swing.*;
 import javax.swing.event.*;
 
@@ -11,10 +13,26 @@ import javax.swing.event.*;
  *  Various properties control the scrolling of the components on the panel.
  *  Changes to the properties are dynamic and will take effect the next time
  *  the components are scrolled.
+ *
+ *  Scrolling is driven by the shared FrameScheduler and is paused while the
+ *  panel is not visible.
+ *
+ *  When the strip is cached the components are painted once into an image
+ *  and scrolling simply paints the image at a different offset. The offset
+ *  is then advanced based on the elapsed time, rather than the number of
+ *  times scrolling was performed, so the speed of scrolling doesn't vary
+ *  when the Event Dispatch Thread is busy. The image is painted again when a
+ *  component is changed, see invalidateStrip().
  */
 public class MarqueePanel extends JPanel
-	implements ActionListener, AncestorListener, WindowListener
+	implements ActionListener, AncestorListener, WindowListener,
+		ContainerListener, PropertyChangeListener
 {
+	//  Limit the scrolling done after the panel was hidden or the Event
+	//  Dispatch Thread was blocked for a long time
+
+	private final static long MAX_ELAPSED_NANOS = 250000000L;
+
 	protected boolean paintChildren;
 	protected boolean scrollingPaused;
 	protected int scrollOffset;
@@ -26,7 +44,16 @@ public class MarqueePanel extends JPanel
 	private boolean wrap = false;
 	private int wrapAmount = 50;
 	private boolean scrollWhenFocused = true;
-	private Timer timer = new Timer(1000, this);
+	private FrameScheduler.Subscription timer =
+		FrameScheduler.getSharedInstance().subscribe(1000, this);
+
+	//  Used when the strip is cached
+
+	private boolean stripCached;
+	private BufferedImage strip;
+	private double stripScale;
+	private long lastScrollTime;
+	private double scrollRemainder;
 
 	/**
 	 *	Convenience constructor that sets both the scroll frequency and
@@ -50,6 +77,8 @@ public class MarqueePanel extends JPanel
 		setScrollAmount( scrollAmount );
 		setLayout( new BoxLayout(this, BoxLayout.X_AXIS) );
 		addAncestorListener( this );
+		addContainerListener( this );
+		timer.setPauseWhenHidden( this );
 	}
 
 	/*
@@ -63,6 +92,12 @@ public class MarqueePanel extends JPanel
 
 		if (! paintChildren) return;
 
+		if (stripCached)
+		{
+			paintStrip(g);
+			return;
+		}
+
 		//  Normal painting as the components scroll right to left
 
 		Graphics2D g2d = (Graphics2D)g;
@@ -83,6 +118,87 @@ public class MarqueePanel extends JPanel
 		}
 	}
 
+	/*
+	 *  Paint the cached strip at the scroll offset and, when wrapping, at the
+	 *  wrap offset.
+	 */
+	private void paintStrip(Graphics g)
+	{
+		double scale = ((Graphics2D)g).getTransform().getScaleX();
+		BufferedImage strip = getStrip(scale);
+
+		if (strip == null) return;
+
+		int width = (int)Math.round(strip.getWidth() / stripScale);
+		int height = (int)Math.round(strip.getHeight() / stripScale);
+		g.drawImage(strip, -scrollOffset, 0, width, height, null);
+
+		if (isWrap())
+		{
+			wrapOffset = scrollOffset - super.getPreferredSize().width - wrapAmount;
+			g.drawImage(strip, -wrapOffset, 0, width, height, null);
+		}
+	}
+
+	/*
+	 *  Paint the components once into an image at the resolution of the
+	 *  screen. The image extends to the right edge of the last component,
+	 *  which can be beyond the right edge of the panel.
+	 */
+	private BufferedImage getStrip(double scale)
+	{
+		if (strip != null && stripScale == scale) return strip;
+
+		int width = 0;
+
+		for (Component child : getComponents())
+			width = Math.max(width, child.getX() + child.getWidth());
+
+		int height = getHeight();
+
+		if (width <= 0 || height <= 0) return null;
+
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		int imageWidth = (int)Math.ceil(width * scale);
+		int imageHeight = (int)Math.ceil(height * scale);
+
+		strip = gc == null
+			? new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB_PRE)
+			: gc.createCompatibleImage(imageWidth, imageHeight, Transparency.TRANSLUCENT);
+		stripScale = scale;
+
+		Graphics2D g2 = strip.createGraphics();
+		g2.scale(scale, scale);
+		g2.setClip(0, 0, width, height);
+		super.paintChildren(g2);
+		g2.dispose();
+
+		return strip;
+	}
+
+	/**
+	 *  Discard the cached strip so the components are painted again on the
+	 *  next scroll. The strip is discarded automatically when a component is
+	 *  added, removed or revalidated, or when it, or a component it contains,
+	 *  fires a PropertyChangeEvent. This method must be invoked when a
+	 *  component is only repainted, for example after custom painting state
+	 *  was changed.
+	 */
+	public void invalidateStrip()
+	{
+		strip = null;
+	}
+
+	/**
+	 *  Overridden to discard the cached strip when a component is revalidated.
+	 */
+	@Override
+	public void invalidate()
+	{
+		super.invalidate();
+		strip = null;
+	}
+
 	/*
 	 *  The default preferred size will be half the size of the components added to
 	 *  the panel. This will allow room for components to be scrolled on and off
@@ -193,6 +309,35 @@ public class MarqueePanel extends JPanel
 		this.scrollWhenFocused = scrollWhenFocused;
 	}
 
+	/**
+	 *  Get the strip cached property.
+	 *
+	 *  @return the strip cached value
+	 */
+	public boolean isStripCached()
+	{
+		return stripCached;
+	}
+
+	/**
+	 *  Specify whether the components are painted from a cached strip. Use
+	 *  this for components whose appearance changes rarely, like a JLabel
+	 *  showing static text. An animated image will not be animated.
+	 *
+	 *  @param stripCached  when true the components are painted once into an
+	 *                      image and the offset is advanced based on the time
+	 *                      elapsed. Otherwise the components are painted on
+	 *                      every scroll.
+	 */
+	public void setStripCached(boolean stripCached)
+	{
+		this.stripCached = stripCached;
+		strip = null;
+		lastScrollTime = 0;
+		scrollRemainder = 0;
+		repaint();
+	}
+
 	/**
 	 *  Get the wrap property.
 	 *
@@ -252,6 +397,7 @@ public class MarqueePanel extends JPanel
 	{
 		paintChildren = true;
 		scrollOffset =  - getSize().width;
+		lastScrollTime = 0;
 
 		timer.start();
 	}
@@ -288,6 +434,7 @@ public class MarqueePanel extends JPanel
 		{
 			timer.restart();
 			scrollingPaused = false;
+			lastScrollTime = 0;
 		}
 	}
 
@@ -299,17 +446,42 @@ public class MarqueePanel extends JPanel
 	 */
 	public void actionPerformed(ActionEvent ae)
 	{
-		scrollOffset = scrollOffset + scrollAmount;
+		int amount = stripCached ? getElapsedScrollAmount() : scrollAmount;
+		scrollOffset = scrollOffset + amount;
 		int width = super.getPreferredSize().width;
 
 		if (scrollOffset > width)
 		{
-			scrollOffset = isWrap() ? wrapOffset + scrollAmount : - getSize().width;
+			scrollOffset = isWrap() ? wrapOffset + amount : - getSize().width;
 		}
 
 		repaint();
 	}
 
+	/*
+	 *  The scroll amount is the number of pixels to scroll per scroll
+	 *  frequency, so scale it by the time elapsed since the last scroll.
+	 *  Fractions of a pixel are carried over to the next scroll.
+	 */
+	private int getElapsedScrollAmount()
+	{
+		long now = System.nanoTime();
+
+		if (lastScrollTime == 0)
+			scrollRemainder += scrollAmount;
+		else
+		{
+			long elapsed = Math.min(now - lastScrollTime, MAX_ELAPSED_NANOS);
+			scrollRemainder += scrollAmount * scrollFrequency * elapsed / 1000000000.0;
+		}
+
+		lastScrollTime = now;
+		int amount = (int)scrollRemainder;
+		scrollRemainder -= amount;
+
+		return amount;
+	}
+
 //  Implement AncestorListener
 
 	/**
@@ -324,6 +496,59 @@ public class MarqueePanel extends JPanel
 	public void ancestorMoved(AncestorEvent e) {}
 	public void ancestorRemoved(AncestorEvent e) {}
 
+//  Implement ContainerListener
+
+	/**
+	 *  Track property changes of the components, and of the components they
+	 *  contain, to discard the cached strip.
+	 */
+	public void componentAdded(ContainerEvent e)
+	{
+		track( e.getChild() );
+		strip = null;
+	}
+
+	public void componentRemoved(ContainerEvent e)
+	{
+		untrack( e.getChild() );
+		strip = null;
+	}
+
+	private void track(Component component)
+	{
+		component.addPropertyChangeListener( this );
+
+		if (component instanceof Container)
+		{
+			Container container = (Container)component;
+			container.addContainerListener( this );
+
+			for (Component child : container.getComponents())
+				track( child );
+		}
+	}
+
+	private void untrack(Component component)
+	{
+		component.removePropertyChangeListener( this );
+
+		if (component instanceof Container)
+		{
+			Container container = (Container)component;
+			container.removeContainerListener( this );
+
+			for (Component child : container.getComponents())
+				untrack( child );
+		}
+	}
+
+//  Implement PropertyChangeListener
+
+	public void propertyChange(PropertyChangeEvent e)
+	{
+		strip = null;
+	}
+
 //  Implement WindowListener
 
 	public void windowActivated(WindowEvent e)
@@ -95,6 +95,11 @@ public class MarqueePanelDemo extends JPanel
 		scrollWhenFocused.addItemListener( this );
 		main.add( scrollWhenFocused );
 
+		JCheckBox stripCached = new JCheckBox("Cache Strip");
+		stripCached.setSelected( false );
+		stripCached.addItemListener( this );
+		main.add( stripCached );
+
 		JPanel panel = new JPanel();
 		panel.add( main );
 
@@ -153,6 +158,8 @@ public class MarqueePanelDemo extends JPanel
 			marquee.setWrap( checkBox.isSelected() );
 			wrapAmount.setEnabled( checkBox.isSelected() );
 		}
+		else if ("Cache Strip".equals(command))
+			marquee.setStripCached( checkBox.isSelected() );
 		else
 			marquee.setScrollWhenFocused( checkBox.isSelected() );
 	}
@@ -1,9 +1,20 @@
-import java.text.NumberFormat;
-import java.util.Locale;
+import java.text.*;
 import javax.swing.SwingConstants;
 
+/*
+ *  Use a NumberFormat to format the cell Object and right align the text.
+ *
+ *  Integer, Long, Short and Byte values are formatted without using the
+ *  NumberFormat when the formatter is a DecimalFormat whose output can be
+ *  reproduced by appending digits, grouping separators, the prefix and the
+ *  suffix. This is verified against the formatter when the renderer is
+ *  created, or when formatterChanged() is invoked, and the NumberFormat is
+ *  used for all values when it fails.
+ */
 public class NumberRenderer extends FormatRenderer
 {
+	private IntegralFormat integralFormat;
+
 	/*
 	 *  Use the specified number formatter and right align the text
 	 */
@@ -11,6 +22,40 @@ public class NumberRenderer extends FormatRenderer
 	{
 		super(formatter);
 		setHorizontalAlignment( SwingConstants.RIGHT );
+		integralFormat = IntegralFormat.create( formatter );
+	}
+
+	/*
+	 *  Copy the settings of the formatter again
+	 */
+	@Override
+	public void formatterChanged()
+	{
+		integralFormat = IntegralFormat.create( getFormatter() );
+		super.formatterChanged();
+	}
+
+	/*
+	 *  Integral values are formatted without using the formatter, when possible
+	 */
+	@Override
+	protected String format(Object value, Format formatter)
+	{
+		IntegralFormat integralFormat = this.integralFormat;
+
+		if (integralFormat != null
+		&&  (value instanceof Integer
+		||   value instanceof Long
+		||   value instanceof Short
+		||   value instanceof Byte))
+		{
+			String text = integralFormat.format( ((Number)value).longValue() );
+
+			if (text != null)
+				return text;
+		}
+
+		return super.format(value, formatter);
 	}
 
 	/*
@@ -36,4 +81,136 @@ public class NumberRenderer extends FormatRenderer
 	{
 		return new NumberRenderer( NumberFormat.getPercentInstance() );
 	}
+
+	/*
+	 *  The settings of a DecimalFormat needed to format integral values. The
+	 *  settings are copied, so this can be used on any thread.
+	 */
+	private static class IntegralFormat
+	{
+		private final static long[] SAMPLES =
+			{0, 1, -1, 7, 12, -345, 1234, 98765, -987654, 1234567890, -9876543210L, 123456789012345L};
+
+		private String positivePrefix;
+		private String positiveSuffix;
+		private String negativePrefix;
+		private String negativeSuffix;
+		private char zeroDigit;
+		private char groupingSeparator;
+		private int groupingSize;
+		private int multiplier;
+		private int minimumIntegerDigits;
+		private String fraction;
+
+		/*
+		 *  Copy the settings of the formatter and make sure the result is the
+		 *  same as the formatter
+		 *
+		 *  @return the IntegralFormat, or null when the formatter can't be
+		 *          reproduced
+		 */
+		static IntegralFormat create(Format formatter)
+		{
+			if (! (formatter instanceof DecimalFormat)) return null;
+
+			DecimalFormat format = (DecimalFormat)formatter;
+
+			if (format.getMaximumIntegerDigits() < 19) return null;
+
+			IntegralFormat integralFormat = new IntegralFormat( format );
+
+			for (long sample : SAMPLES)
+			{
+				if (! format.format( sample ).equals( integralFormat.format(sample) ))
+					return null;
+			}
+
+			return integralFormat;
+		}
+
+		private IntegralFormat(DecimalFormat format)
+		{
+			DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+
+			positivePrefix = format.getPositivePrefix();
+			positiveSuffix = format.getPositiveSuffix();
+			negativePrefix = format.getNegativePrefix();
+			negativeSuffix = format.getNegativeSuffix();
+			zeroDigit = symbols.getZeroDigit();
+			groupingSeparator = symbols.getGroupingSeparator();
+			groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+			multiplier = format.getMultiplier();
+			minimumIntegerDigits = format.getMinimumIntegerDigits();
+
+			//  The fraction of an integral value is a number of zeros. The decimal
+			//  separator is checked by comparing with the formatter in create(...)
+
+			StringBuilder sb = new StringBuilder();
+			int digits = format.getMinimumFractionDigits();
+
+			if (digits > 0 || format.isDecimalSeparatorAlwaysShown())
+			{
+				boolean currency = format.toPattern().indexOf('\u00A4') != -1;
+				sb.append( currency ? symbols.getMonetaryDecimalSeparator() : symbols.getDecimalSeparator() );
+			}
+
+			for (int i = 0; i < digits; i++)
+				sb.append( zeroDigit );
+
+			fraction = sb.toString();
+		}
+
+		/*
+		 *  Format an integral value
+		 *
+		 *  @return the formatted value, or null when the value can't be handled
+		 */
+		String format(long value)
+		{
+			if (multiplier != 1)
+			{
+				try
+				{
+					value = Math.multiplyExact(value, multiplier);
+				}
+				catch(ArithmeticException e)
+				{
+					return null;
+				}
+			}
+
+			if (value == Long.MIN_VALUE) return null;
+
+			boolean negative = value < 0;
+			long magnitude = Math.abs( value );
+
+			//  Build the digits from right to left. A long has at most 19 digits,
+			//  but more can be required by the minimum number of integer digits
+
+			int digits = Math.max(19, minimumIntegerDigits);
+			int separators = groupingSize > 0 ? digits / groupingSize : 0;
+			char[] buffer = new char[digits + separators];
+			int position = buffer.length;
+			int count = 0;
+
+			do
+			{
+				if (groupingSize > 0 && count > 0 && count % groupingSize == 0)
+					buffer[--position] = groupingSeparator;
+
+				buffer[--position] = (char)(zeroDigit + (int)(magnitude % 10));
+				magnitude /= 10;
+				count++;
+			}
+			while (magnitude > 0 || count < minimumIntegerDigits);
+
+			StringBuilder sb = new StringBuilder(buffer.length - position + 16);
+			sb.append( negative ? negativePrefix : positivePrefix );
+			sb.append(buffer, position, buffer.length - position);
+			sb.append( fraction );
+			sb.append( negative ? negativeSuffix : positiveSuffix );
+
+			return sb.toString();
+		}
+	}
 }
@@ -36,6 +36,10 @@ import java.util.ArrayList;
  *  always paint themselves on the top of others. This seems to happen with
  *  components like JButton as rollover effects are painted when a mouse moves
  *  over the components.
+ *
+ *  The preferred size of each component is cached. It is only requested again
+ *  once the component has been invalidated, so a resize of the container does
+ *  not query every component again.
  */
 public class OverlapLayout implements LayoutManager2, java.io.Serializable
 {
@@ -62,6 +66,11 @@ public class OverlapLayout implements LayoutManager2, java.io.Serializable
 	//  Track a constraint added to a component
 	private HashMap<Component, Boolean> constraints = new HashMap<Component, Boolean>();
 
+	//  Cached preferred sizes, see invalidateLayout()
+	private boolean cacheEnabled = true;
+	private Map<Component, Dimension> preferredSizes = new HashMap<Component, Dimension>();
+	private Dimension cachedParentSize;
+
 	/**
 	 *  Convenience constructor to provide for "stacking" of components. Each
 	 *	component will be stacked above the previous component and sized to
@@ -181,6 +190,29 @@ public class OverlapLayout implements LayoutManager2, java.io.Serializable
 		this.popupInsets = popupInsets;
 	}
 
+	/**
+	 *  Get the cache enabled property
+	 *
+	 *  @returns the cache enabled property
+	 */
+	public boolean isCacheEnabled()
+	{
+		return cacheEnabled;
+	}
+
+	/**
+	 *  Cache the preferred size of the components between layouts. The
+	 *  default is true.
+	 *
+	 *  @param cacheEnabled  when false the preferred size of each component
+	 *                       is requested on every layout
+	 */
+	public void setCacheEnabled(boolean cacheEnabled)
+	{
+		this.cacheEnabled = cacheEnabled;
+		preferredSizes.clear();
+	}
+
 	/**
 	 *  Gets the constraints for the specified component.
 	 *
@@ -264,6 +296,7 @@ public class OverlapLayout implements LayoutManager2, java.io.Serializable
 	{
 		components.remove( component );
 		constraints.remove( component );
+		preferredSizes.remove( component );
 	}
 
 	/**
@@ -349,12 +382,32 @@ public class OverlapLayout implements LayoutManager2, java.io.Serializable
 	{
 		switch (type)
 		{
-			case PREFERRED: return component.getPreferredSize();
+			case PREFERRED: return getPreferredSize(component);
 			case MINIMUM: return component.getMinimumSize();
 			default: return new Dimension(0, 0);
 		}
 	}
 
+	/*
+	 *  The cached preferred size is used until the component is invalidated
+	 */
+	private Dimension getPreferredSize(Component component)
+	{
+		if (! cacheEnabled)
+			return component.getPreferredSize();
+
+		Dimension size = preferredSizes.get( component );
+
+		if (size == null
+		||  ! component.isValid())
+		{
+			size = component.getPreferredSize();
+			preferredSizes.put(component, size);
+		}
+
+		return size;
+	}
+
 	/**
 	 * Lays out the specified container using this layout.
 	 * <p>
@@ -366,6 +419,7 @@ public class OverlapLayout implements LayoutManager2, java.io.Serializable
 	synchronized (parent.getTreeLock())
 	{
 		int size = components.size();
+		cachedParentSize = parent.getSize();
 
 		if (size == 0) return;
 
@@ -378,7 +432,7 @@ public class OverlapLayout implements LayoutManager2, java.io.Serializable
 			if (component.isVisible()
 			||  includeInvisible)
 			{
-				Dimension preferred = component.getPreferredSize();
+				Dimension preferred = getPreferredSize(component);
 				maximumSize.width = Math.max(preferred.width, maximumSize.width);
 				maximumSize.height = Math.max(preferred.height, maximumSize.height);
 			}
@@ -482,7 +536,10 @@ public class OverlapLayout implements LayoutManager2, java.io.Serializable
 	 */
 	public void invalidateLayout(Container target)
 	{
-		// remove constraints here?
+		//  Keep the sizes when the container was only resized
+
+		if (target.getSize().equals( cachedParentSize ))
+			preferredSizes.clear();
 	}
 
 	/**
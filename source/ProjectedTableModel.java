@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import javax.swing.event.*;
+import javax.swing.table.*;
+
+/**
+ *  A TableModel that projects the visible columns of another TableModel.
+ *  The column indexes are those of the wrapped model, so TableColumns,
+ *  RowSorters and RowFilters can use the same indexes for both models.
+ *  However, the value of a hidden column is never requested from the wrapped
+ *  model, so the cost of a column that is expensive to compute is only paid
+ *  while the column is visible. A hidden column has a null value for every
+ *  row and can't be edited.
+ *
+ *  Consumers that only want the visible columns, for example to export the
+ *  table, can use getVisibleColumnCount() and getVisibleColumn(...) to get
+ *  the model indexes of the visible columns.
+ *
+ *  The visibility of the columns is normally maintained by the
+ *  TableColumnManager, see TableColumnManager.setProjectionEnabled(...).
+ */
+public class ProjectedTableModel extends AbstractTableModel
+	implements TableModelListener
+{
+	private TableModel model;
+	private boolean[] visible;
+	private int[] visibleColumns;
+
+	/**
+	 *  Create a projection of the model with all columns visible.
+	 *
+	 *  @param model the TableModel to be projected
+	 */
+	public ProjectedTableModel(TableModel model)
+	{
+		this.model = model;
+		model.addTableModelListener( this );
+		setAllColumnsVisible();
+	}
+
+	/**
+	 *  Get the TableModel being projected
+	 *
+	 *  @return the wrapped TableModel
+	 */
+	public TableModel getModel()
+	{
+		return model;
+	}
+
+	/**
+	 *  Stop listening to the wrapped model
+	 */
+	public void dispose()
+	{
+		model.removeTableModelListener( this );
+	}
+
+	/**
+	 *  Is the column visible
+	 *
+	 *  @param column the column index of the wrapped model
+	 *  @return true when the value of the column is provided
+	 */
+	public boolean isColumnVisible(int column)
+	{
+		return column < visible.length && visible[column];
+	}
+
+	/**
+	 *  Change the visibility of the columns. Listeners are notified that the
+	 *  values of every column whose visibility changed have been updated.
+	 *
+	 *  @param columns the column indexes of the wrapped model to be visible
+	 */
+	public void setVisibleColumns(int[] columns)
+	{
+		boolean[] old = visible;
+		visible = new boolean[model.getColumnCount()];
+
+		for (int column : columns)
+		{
+			if (column >= 0 && column < visible.length)
+				visible[column] = true;
+		}
+
+		updateVisibleColumns();
+
+		int rowCount = getRowCount();
+
+		if (rowCount == 0) return;
+
+		for (int column = 0; column < visible.length; column++)
+		{
+			boolean wasVisible = column < old.length && old[column];
+
+			if (wasVisible != visible[column])
+				fireTableChanged( new TableModelEvent(this, 0, rowCount - 1, column) );
+		}
+	}
+
+	/**
+	 *  Get the number of visible columns
+	 *
+	 *  @return the number of visible columns
+	 */
+	public int getVisibleColumnCount()
+	{
+		return visibleColumns.length;
+	}
+
+	/**
+	 *  Get the column index of a visible column
+	 *
+	 *  @param index the index of the visible column, from 0 to
+	 *               getVisibleColumnCount() - 1
+	 *  @return the column index of the wrapped model
+	 */
+	public int getVisibleColumn(int index)
+	{
+		return visibleColumns[index];
+	}
+
+	private void setAllColumnsVisible()
+	{
+		visible = new boolean[model.getColumnCount()];
+		Arrays.fill(visible, true);
+		updateVisibleColumns();
+	}
+
+	private void updateVisibleColumns()
+	{
+		int count = 0;
+
+		for (boolean isVisible : visible)
+		{
+			if (isVisible) count++;
+		}
+
+		visibleColumns = new int[count];
+		count = 0;
+
+		for (int column = 0; column < visible.length; column++)
+		{
+			if (visible[column])
+				visibleColumns[count++] = column;
+		}
+	}
+//
+//  Implement the TableModel interface
+//
+	public int getRowCount()
+	{
+		return model.getRowCount();
+	}
+
+	public int getColumnCount()
+	{
+		return model.getColumnCount();
+	}
+
+	@Override
+	public String getColumnName(int column)
+	{
+		return model.getColumnName( column );
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column)
+	{
+		return model.getColumnClass( column );
+	}
+
+	@Override
+	public boolean isCellEditable(int row, int column)
+	{
+		return isColumnVisible( column ) && model.isCellEditable(row, column);
+	}
+
+	public Object getValueAt(int row, int column)
+	{
+		return isColumnVisible( column ) ? model.getValueAt(row, column) : null;
+	}
+
+	@Override
+	public void setValueAt(Object value, int row, int column)
+	{
+		if (isColumnVisible( column ))
+			model.setValueAt(value, row, column);
+	}
+//
+//  Implement the TableModelListener interface
+//
+	/*
+	 *  Forward the event as an event of this model. An update of a single
+	 *  hidden column is not forwarded.
+	 */
+	public void tableChanged(TableModelEvent e)
+	{
+		int column = e.getColumn();
+
+		if (e.getFirstRow() == TableModelEvent.HEADER_ROW
+		||  model.getColumnCount() != visible.length)
+		{
+			setAllColumnsVisible();
+		}
+		else if (e.getType() == TableModelEvent.UPDATE
+		     &&  column != TableModelEvent.ALL_COLUMNS
+		     &&  ! isColumnVisible( column ))
+		{
+			return;
+		}
+
+		fireTableChanged( new TableModelEvent(this, e.getFirstRow(), e.getLastRow(), column, e.getType()) );
+	}
+}
@@ -26,6 +26,15 @@ import java.util.*;
  *
  *  By defaults components are center aligned on the secondary axis
  *  however this can be changed at the container or component level.
+ *
+ *  The preferred size and constraint of each component are cached, along
+ *  with the space allocated to the relative components. During a resize of
+ *  the container only the space is recalculated. The preferred size of a
+ *  component is only requested again once the component has been
+ *  invalidated, or when invalidateLayout() is invoked for any reason other
+ *  than a change in the size of the container. As with any layout manager,
+ *  revalidate() must be invoked when the preferred size of a component is
+ *  changed.
  */
 public class RelativeLayout implements LayoutManager2, java.io.Serializable
 {
@@ -51,6 +60,22 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 
 	private HashMap<Component, Float> constraints = new HashMap<Component, Float>();
 
+	//  Layout cache, see invalidateLayout()
+
+	private boolean cacheEnabled = true;
+	private Component[] cachedComponents = new Component[0];
+	private Dimension[] cachedSizes = new Dimension[0];
+	private Float[] cachedConstraints = new Float[0];
+	private Dimension cachedParentSize;
+
+	//  Space allocated to relative components and the values it was
+	//  allocated for
+
+	private int[] relativeSpace;
+	private boolean[] relativeVisible;
+	private int relativeSpaceAvailable;
+	private float relativeTotal;
+
 	/**
 	 *  The axis of the Components within the Container.
 	 */
@@ -272,6 +297,28 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 		this.roundingPolicy = roundingPolicy;
 	}
 
+	/**
+	 *  Gets the cache enabled property
+	 *  @return	   the cache enabled property
+	 */
+	public boolean isCacheEnabled()
+	{
+		return cacheEnabled;
+	}
+
+	/**
+	 *  Cache the preferred size of the components and the space allocated to
+	 *  relative components between layouts. The default is true. When false
+	 *  the preferred size of each component is requested on every layout.
+	 *
+	 *  @param cacheEnabled  true to cache layout information
+	 */
+	public void setCacheEnabled(boolean cacheEnabled)
+	{
+		this.cacheEnabled = cacheEnabled;
+		clearCache();
+	}
+
 	/**
 	 *  Gets the constraints for the specified component.
 	 *
@@ -297,6 +344,7 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 		if (constraint == null || constraint instanceof Float)
 		{
 			constraints.put(component, (Float)constraint);
+			clearCache();
 		}
 		else
 			throw new IllegalArgumentException("Constraint parameter must be of type Float");
@@ -306,7 +354,11 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 	 * Removes the specified component from the layout.
 	 * @param comp the component to be removed
 	 */
-	public void removeLayoutComponent(Component comp) {}
+	public void removeLayoutComponent(Component comp)
+	{
+		constraints.remove(comp);
+		clearCache();
+	}
 
 	/**
 	 * Determines the preferred size of the container argument using
@@ -403,6 +455,8 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 
 		if (components == 0) return;
 
+		updateCache( parent );
+
 		//  Determine space available for components using relative sizing
 
 		float relativeTotal = 0.0f;
@@ -419,12 +473,11 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 
 			if (! component.isVisible()) continue;
 
-			Float constraint = constraints.get(component);
+			Float constraint = cachedConstraints[i];
 
 			if (constraint == null)
 			{
-				Dimension d = component.getPreferredSize();
-				spaceAvailable -= d.width;
+				spaceAvailable -= cachedSizes[i].width;
 			}
 			else
 			{
@@ -434,7 +487,7 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 
 		//  Allocate space to each component using relative sizing
 
-		int[] relativeSpace = allocateRelativeSpace(parent, spaceAvailable, relativeTotal);
+		int[] relativeSpace = getRelativeSpace(parent, spaceAvailable, relativeTotal);
 
 		//  Position each component in the container
 
@@ -452,12 +505,12 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 			if (i > 0)
 				x += gap;
 
-			Dimension d = component.getPreferredSize();
+			Dimension d = new Dimension( cachedSizes[i] );
 
 			if (fill)
 				d.height = parentHeight - fillGap;
 
-			Float constraint = constraints.get(component);
+			Float constraint = cachedConstraints[i];
 
 			if (constraint == null)
 			{
@@ -505,6 +558,8 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 
 		if (components == 0) return;
 
+		updateCache( parent );
+
 		//  Determine space available for components using relative sizing
 
 		float relativeTotal = 0.0f;
@@ -521,12 +576,11 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 
 			if (! component.isVisible()) continue;
 
-			Float constraint = constraints.get(component);
+			Float constraint = cachedConstraints[i];
 
 			if (constraint == null)
 			{
-				Dimension d = component.getPreferredSize();
-				spaceAvailable -= d.height;
+				spaceAvailable -= cachedSizes[i].height;
 			}
 			else
 			{
@@ -536,7 +590,7 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 
 		//  Allocate space to each component using relative sizing
 
-		int[] relativeSpace = allocateRelativeSpace(parent, spaceAvailable, relativeTotal);
+		int[] relativeSpace = getRelativeSpace(parent, spaceAvailable, relativeTotal);
 
 		//  Position each component in the container
 
@@ -554,12 +608,12 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 			if (i > 0)
 				y += gap;
 
-			Dimension d = component.getPreferredSize();
+			Dimension d = new Dimension( cachedSizes[i] );
 
 			if (fill)
 				d.width = parentWidth - fillGap;
 
-			Float constraint = constraints.get(component);
+			Float constraint = cachedConstraints[i];
 
 			if (constraint == null)
 			{
@@ -598,6 +652,45 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 		return (int)x;
 	}
 
+	/*
+	 *  Get the space allocated to each component using relative sizing. The
+	 *  previous allocation is reused when the space available, the relative
+	 *  total and the visible components have not changed.
+	 */
+	private int[] getRelativeSpace(Container parent, int spaceAvailable, float relativeTotal)
+	{
+		int components = parent.getComponentCount();
+
+		if (cacheEnabled
+		&&  relativeSpace != null
+		&&  relativeSpace.length == components
+		&&  relativeSpaceAvailable == spaceAvailable
+		&&  this.relativeTotal == relativeTotal
+		&&  isSameVisibility(parent))
+			return relativeSpace;
+
+		relativeSpace = allocateRelativeSpace(parent, spaceAvailable, relativeTotal);
+		relativeSpaceAvailable = spaceAvailable;
+		this.relativeTotal = relativeTotal;
+		relativeVisible = new boolean[components];
+
+		for (int i = 0 ; i < components ; i++)
+			relativeVisible[i] = parent.getComponent(i).isVisible();
+
+		return relativeSpace;
+	}
+
+	private boolean isSameVisibility(Container parent)
+	{
+		for (int i = 0 ; i < relativeVisible.length ; i++)
+		{
+			if (relativeVisible[i] != parent.getComponent(i).isVisible())
+				return false;
+		}
+
+		return true;
+	}
+
 	/*
 	 *  Allocate the space available to each component using relative sizing
 	 */
@@ -614,7 +707,7 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 			if (relativeTotal > 0 && spaceAvailable > 0)
 			{
 				Component component = parent.getComponent(i);
-				Float constraint = constraints.get(component);
+				Float constraint = cachedConstraints[i];
 
 //				if (constraint != null)
 				if (constraint != null && component.isVisible())
@@ -754,13 +847,16 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 		int components = parent.getComponentCount();
 		int visibleComponents = getVisibleComponents( parent );
 
+		if (type == PREFERRED)
+			updateCache( parent );
+
 		for (int i = 0 ; i < components ; i++)
 		{
 			Component component = parent.getComponent(i);
 
 			if (! component.isVisible()) continue;
 
-			Dimension d = getDimension(component, type);
+			Dimension d = type == PREFERRED ? cachedSizes[i] : getDimension(component, type);
 
 			if (axis == X_AXIS)
 			{
@@ -805,6 +901,55 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 		return visibleComponents;
 	}
 
+	/*
+	 *  Get the preferred size and constraint of each component. The size is
+	 *  only requested again for a component that is new, or that has been
+	 *  invalidated since the last layout.
+	 */
+	private void updateCache(Container parent)
+	{
+		int components = parent.getComponentCount();
+
+		if (cachedComponents.length != components)
+		{
+			cachedComponents = new Component[components];
+			cachedSizes = new Dimension[components];
+			cachedConstraints = new Float[components];
+		}
+
+		for (int i = 0 ; i < components ; i++)
+		{
+			Component component = parent.getComponent(i);
+
+			if (cacheEnabled
+			&&  cachedComponents[i] == component
+			&&  cachedSizes[i] != null
+			&&  component.isValid())
+				continue;
+
+			Dimension d = component.getPreferredSize();
+
+			if (cachedComponents[i] != component
+			||  ! d.equals( cachedSizes[i] ))
+				relativeSpace = null;
+
+			cachedComponents[i] = component;
+			cachedSizes[i] = d;
+			cachedConstraints[i] = constraints.get(component);
+		}
+
+		cachedParentSize = parent.getSize();
+	}
+
+	private void clearCache()
+	{
+		cachedComponents = new Component[0];
+		cachedSizes = new Dimension[0];
+		cachedConstraints = new Float[0];
+		cachedParentSize = null;
+		relativeSpace = null;
+	}
+
 	private Dimension getDimension(Component component, int type)
 	{
 		switch (type)
@@ -842,10 +987,16 @@ public class RelativeLayout implements LayoutManager2, java.io.Serializable
 	/**
 	 * Invalidates the layout, indicating that if the layout manager
 	 * has cached information it should be discarded.
+	 * <p>
+	 * Nothing is discarded when the container was only resized. The relative
+	 * space is reallocated by the next layout when the space available changes.
 	 */
 	public void invalidateLayout(Container target)
 	{
-		// remove constraints here?
+		if (! target.getSize().equals( cachedParentSize ))
+			return;
+
+		clearCache();
 	}
 
 	/**
@@ -0,0 +1,126 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.*;
+import javax.swing.border.*;
+
+/*
+ *  Nested panels using RelativeLayout. The "Resize Benchmark" button resizes
+ *  the frame the same way a window resize drag would, validating the frame
+ *  after every step, and reports the time taken with and without the layout
+ *  cache.
+ */
+public class RelativeLayoutDemo extends JPanel
+	implements ActionListener
+{
+	private final static int DEPTH = 4;
+	private final static int STEPS = 200;
+
+	private List<RelativeLayout> layouts = new ArrayList<RelativeLayout>();
+	private JCheckBox cacheEnabled;
+	private JLabel result;
+
+	RelativeLayoutDemo()
+	{
+		setLayout( new BorderLayout() );
+
+		add(createNestedPanel(RelativeLayout.X_AXIS, DEPTH), BorderLayout.CENTER);
+		add(createSouthPanel(), BorderLayout.SOUTH);
+	}
+
+	/*
+	 *  Each level contains fixed size labels and two relative sized
+	 *  panels for the next level.
+	 */
+	private JComponent createNestedPanel(int axis, int depth)
+	{
+		RelativeLayout rl = new RelativeLayout(axis, 2);
+		rl.setFill( true );
+		layouts.add( rl );
+
+		JPanel panel = new JPanel( rl );
+		panel.setBorder( new LineBorder(Color.GRAY) );
+
+		int nextAxis = axis == RelativeLayout.X_AXIS ? RelativeLayout.Y_AXIS : RelativeLayout.X_AXIS;
+
+		for (int i = 0; i < 3; i++)
+			panel.add( new JLabel("Level " + depth + "." + i) );
+
+		if (depth > 0)
+		{
+			panel.add(createNestedPanel(nextAxis, depth - 1), Float.valueOf(1));
+			panel.add(createNestedPanel(nextAxis, depth - 1), Float.valueOf(2));
+		}
+		else
+			panel.add(new JTextField("Relative"), Float.valueOf(1));
+
+		return panel;
+	}
+
+	private JComponent createSouthPanel()
+	{
+		JPanel panel = new JPanel();
+
+		cacheEnabled = new JCheckBox("Cache Layout");
+		cacheEnabled.setSelected( true );
+		cacheEnabled.addActionListener( this );
+		panel.add( cacheEnabled );
+
+		JButton benchmark = new JButton("Resize Benchmark");
+		benchmark.addActionListener( this );
+		panel.add( benchmark );
+
+		result = new JLabel(" ");
+		panel.add( result );
+
+		return panel;
+	}
+
+	public void actionPerformed(ActionEvent e)
+	{
+		if (e.getSource() == cacheEnabled)
+		{
+			for (RelativeLayout layout : layouts)
+				layout.setCacheEnabled( cacheEnabled.isSelected() );
+
+			return;
+		}
+
+		Window window = SwingUtilities.windowForComponent( this );
+		Dimension size = window.getSize();
+		long start = System.nanoTime();
+
+		for (int i = 0; i < STEPS; i++)
+		{
+			int delta = (i % 100) < 50 ? i % 50 : 50 - (i % 50);
+			window.setSize(size.width + delta, size.height + delta);
+			window.validate();
+		}
+
+		long elapsed = (System.nanoTime() - start) / 1000;
+		window.setSize( size );
+		window.validate();
+
+		result.setText(layouts.size() + " layouts, " + STEPS + " resizes: " + (elapsed / STEPS) + " microseconds per resize");
+	}
+
+	public static void main(String[] args)
+	{
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				createAndShowGUI();
+			}
+		});
+	}
+
+	public static void createAndShowGUI()
+	{
+		JFrame frame = new JFrame("Relative Layout");
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		frame.add( new RelativeLayoutDemo() );
+		frame.setSize(900, 600);
+		frame.setLocationRelativeTo(null);
+		frame.setVisible(true);
+	}
+}
@@ -2,7 +2,7 @@ import java.awt.Component;
 import java.awt.Graphics2D;
 import java.awt.Graphics;
 import java.awt.RenderingHints;
-import java.awt.geom.AffineTransform;
+import java.util.Arrays;
 import javax.swing.Icon;
 
 /**
@@ -16,6 +16,10 @@ import javax.swing.Icon;
  * <li>UPSIDE_DOWN - rotated 180 degrees
  * <li>ABOUT_CENTER - the icon is rotated by the specified degrees about its center.
  * </ul>
+ *
+ *  When prerendering is turned on the rotated Icon is painted once into an
+ *  image held by the shared IconRenditionCache and each paint becomes a
+ *  single drawImage.
  */
 public class RotatedIcon implements Icon
 {
@@ -33,6 +37,7 @@ public class RotatedIcon implements Icon
 
 	private double degrees;
 	private boolean circularIcon;
+	private boolean prerendered;
 
 	/**
 	 *  Convenience constructor to create a RotatedIcon that is rotated DOWN.
@@ -148,6 +153,30 @@ public class RotatedIcon implements Icon
 		this.circularIcon = circularIcon;
 	}
 
+	/**
+	 *  Is the rotated Icon prerendered?
+	 *
+	 *  @return true when the rotated Icon is painted from a cached image
+	 */
+	public boolean isPrerendered()
+	{
+		return prerendered;
+	}
+
+	/**
+	 *  Paint the rotated Icon from an image cached in the shared
+	 *  IconRenditionCache rather than transforming the Icon on every paint.
+	 *  Only use this with Icons that paint the same way for every component.
+	 *  If the wrapped Icon changes without changing its size you must invoke
+	 *  IconRenditionCache.getSharedInstance().invalidate(icon).
+	 *
+	 *  @param prerendered  true to paint from a cached image, false otherwise
+	 */
+	public void setPrerendered(boolean prerendered)
+	{
+		this.prerendered = prerendered;
+	}
+
 //
 //  Implement the Icon Interface
 //
@@ -217,8 +246,28 @@ public class RotatedIcon implements Icon
 	@Override
 	public void paintIcon(Component c, Graphics g, int x, int y)
 	{
+		if (prerendered)
+		{
+			Object variant = rotate == Rotate.ABOUT_CENTER
+				? Arrays.asList(rotate, degrees, circularIcon)
+				: rotate;
+
+			if (IconRenditionCache.getSharedInstance().paintIcon(
+				icon, variant, getIconWidth(), getIconHeight(), c, g, x, y,
+				(component, g2) -> paintRotated(component, g2, 0, 0)))
+				return;
+		}
+
 		Graphics2D g2 = (Graphics2D)g.create();
+		paintRotated(c, g2, x, y);
+		g2.dispose();
+	}
 
+	/*
+	 *  Apply the rotation and paint the wrapped Icon
+	 */
+	private void paintRotated(Component c, Graphics2D g2, int x, int y)
+	{
 		int cWidth = icon.getIconWidth() / 2;
 		int cHeight = icon.getIconHeight() / 2;
 		int xAdjustment = (icon.getIconWidth() % 2) == 0 ? 0 : -1;
@@ -250,7 +299,5 @@ public class RotatedIcon implements Icon
 			g2.rotate(Math.toRadians(degrees), x + cWidth, y + cHeight);
 			icon.paintIcon(c, g2, x, y);
 		}
-
-		g2.dispose();
 	}
 }
@@ -0,0 +1,399 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.beans.*;
+import javax.swing.*;
+import javax.swing.border.*;
+import javax.swing.event.*;
+import javax.swing.table.*;
+
+/*
+ *  A lightweight alternative to the RowNumberTable. The row numbers of the
+ *  main table are painted directly, so no renderer, cell value or String is
+ *  created for each row that is painted. This component must be added to the
+ *  row header of the scrollpane that contains the main table:
+ *
+ *      scrollPane.setRowHeaderView( new RowNumberHeader(table) );
+ *
+ *  The digits are painted from an image, a strip containing the digits 0 to 9,
+ *  that is created once for the current font and foreground. Selected rows
+ *  use a second strip with a bold font.
+ *
+ *  The position and height of each row are taken from the main table as the
+ *  rows are painted, so rows of different heights never need to be copied to
+ *  this component. Only the visible rows are painted, so tables with millions
+ *  of rows are supported.
+ *
+ *  Pressing or dragging the mouse selects rows of the main table.
+ */
+public class RowNumberHeader extends JComponent
+	implements PropertyChangeListener, TableModelListener, ListSelectionListener,
+		RowSorterListener
+{
+	private final static int DIGITS = 10;
+
+	private JTable main;
+	private int anchorRow = -1;
+
+	//  The cached digit strips and the state they were created for
+
+	private BufferedImage plainStrip;
+	private BufferedImage boldStrip;
+	private int digitWidth;
+	private int digitHeight;
+	private int digitAscent;
+	private Font stripFont;
+	private Color stripForeground;
+	private double stripScale;
+
+	//  The digits of the row number being painted
+
+	private int[] digits = new int[DIGITS];
+
+	public RowNumberHeader(JTable table)
+	{
+		main = table;
+		main.addPropertyChangeListener( this );
+		main.getModel().addTableModelListener( this );
+		main.getSelectionModel().addListSelectionListener( this );
+
+		if (main.getRowSorter() != null)
+			main.getRowSorter().addRowSorterListener( this );
+
+		//  The height of the main table also changes when the height of a
+		//  single row is changed, which doesn't fire a PropertyChangeEvent
+
+		main.addComponentListener( new ComponentAdapter()
+		{
+			@Override
+			public void componentResized(ComponentEvent e)
+			{
+				if (getHeight() != main.getHeight())
+				{
+					revalidate();
+					repaint();
+				}
+			}
+		});
+
+		setOpaque( true );
+		updateUI();
+
+		MouseInputAdapter mouseHandler = new MouseInputAdapter()
+		{
+			@Override
+			public void mousePressed(MouseEvent e)
+			{
+				selectRows(e, false);
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e)
+			{
+				selectRows(e, true);
+			}
+		};
+
+		addMouseListener( mouseHandler );
+		addMouseMotionListener( mouseHandler );
+	}
+
+	/*
+	 *  Attempt to mimic the table header
+	 */
+	@Override
+	public void updateUI()
+	{
+		super.updateUI();
+
+		Color background = UIManager.getColor("TableHeader.background");
+		setBackground( background == null ? UIManager.getColor("Panel.background") : background );
+
+		Color foreground = UIManager.getColor("TableHeader.foreground");
+		setForeground( foreground == null ? UIManager.getColor("Label.foreground") : foreground );
+
+		Font font = UIManager.getFont("TableHeader.font");
+		setFont( font == null ? UIManager.getFont("Label.font") : font );
+	}
+
+	/*
+	 *  Wide enough for the digits of the last row number and as high as the
+	 *  main table
+	 */
+	@Override
+	public Dimension getPreferredSize()
+	{
+		if (isPreferredSizeSet())
+			return super.getPreferredSize();
+
+		int digitCount = Math.max(getDigitCount(main.getRowCount()), 2);
+		FontMetrics fm = getFontMetrics( getFont().deriveFont(Font.BOLD) );
+		int width = fm.charWidth('0') * (digitCount + 2);
+
+		return new Dimension(width, main.getPreferredSize().height);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		Rectangle clip = g.getClipBounds();
+
+		g.setColor( getBackground() );
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+		int rowCount = main.getRowCount();
+
+		if (rowCount == 0) return;
+
+		//  Only the rows in the clip are painted
+
+		int first = main.rowAtPoint( new Point(0, clip.y) );
+
+		if (first == -1) return;
+
+		Graphics2D g2 = (Graphics2D)g;
+		updateStrips( g2.getTransform().getScaleY() );
+
+		Border border = UIManager.getBorder("TableHeader.cellBorder");
+		ListSelectionModel selectionModel = main.getSelectionModel();
+		int width = getWidth();
+		int y = main.getCellRect(first, 0, true).y;
+		int bottom = clip.y + clip.height;
+
+		for (int row = first; row < rowCount && y < bottom; row++)
+		{
+			int height = main.getRowHeight(row);
+
+			if (border != null)
+				border.paintBorder(this, g, 0, y, width, height);
+
+			BufferedImage strip = selectionModel.isSelectedIndex(row) ? boldStrip : plainStrip;
+			paintNumber(g, strip, row + 1, width, y, height);
+
+			y += height;
+		}
+	}
+
+	/*
+	 *  Paint the number centered in the row, one digit at a time
+	 */
+	private void paintNumber(Graphics g, BufferedImage strip, int number, int width, int y, int height)
+	{
+		int count = 0;
+
+		do
+		{
+			digits[count++] = number % 10;
+			number /= 10;
+		}
+		while (number > 0);
+
+		int x = (width - count * digitWidth) / 2;
+		int top = y + (height - digitHeight) / 2;
+		int stripWidth = strip.getWidth() / DIGITS;
+
+		for (int i = count - 1; i >= 0; i--)
+		{
+			int sx = digits[i] * stripWidth;
+			g.drawImage(strip,
+				x, top, x + digitWidth, top + digitHeight,
+				sx, 0, sx + stripWidth, strip.getHeight(),
+				null);
+			x += digitWidth;
+		}
+	}
+
+	/*
+	 *  Create the digit strips when the font, foreground or scale of the
+	 *  Graphics has changed. The strips are created at the device resolution.
+	 */
+	private void updateStrips(double scale)
+	{
+		if (plainStrip != null
+		&&  getFont().equals( stripFont )
+		&&  getForeground().equals( stripForeground )
+		&&  scale == stripScale)
+			return;
+
+		stripFont = getFont();
+		stripForeground = getForeground();
+		stripScale = scale;
+
+		Font bold = stripFont.deriveFont(Font.BOLD);
+		FontMetrics fm = getFontMetrics( bold );
+
+		//  Each digit uses the width of the widest digit
+
+		digitWidth = 0;
+
+		for (char c = '0'; c <= '9'; c++)
+			digitWidth = Math.max(digitWidth, fm.charWidth(c));
+
+		digitHeight = fm.getAscent() + fm.getDescent();
+		digitAscent = fm.getAscent();
+
+		plainStrip = createStrip(stripFont, scale);
+		boldStrip = createStrip(bold, scale);
+	}
+
+	private BufferedImage createStrip(Font font, double scale)
+	{
+		int width = (int)Math.ceil(digitWidth * scale);
+		int height = (int)Math.ceil(digitHeight * scale);
+		BufferedImage strip = new BufferedImage(width * DIGITS, height, BufferedImage.TYPE_INT_ARGB);
+
+		Graphics2D g2 = strip.createGraphics();
+		g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g2.scale(scale, scale);
+		g2.setFont( font );
+		g2.setColor( stripForeground );
+		FontMetrics fm = g2.getFontMetrics();
+
+		for (int digit = 0; digit < DIGITS; digit++)
+		{
+			String text = String.valueOf( (char)('0' + digit) );
+			float x = (float)(digit * width / scale) + (digitWidth - fm.stringWidth(text)) / 2f;
+			g2.drawString(text, x, digitAscent);
+		}
+
+		g2.dispose();
+
+		return strip;
+	}
+
+	private static int getDigitCount(int number)
+	{
+		int count = 1;
+
+		while (number >= 10)
+		{
+			number /= 10;
+			count++;
+		}
+
+		return count;
+	}
+
+	/*
+	 *  Select rows of the main table. Dragging the mouse extends the selection
+	 *  from the row where the mouse was pressed.
+	 */
+	private void selectRows(MouseEvent e, boolean dragged)
+	{
+		if (! SwingUtilities.isLeftMouseButton(e)) return;
+
+		int row = main.rowAtPoint( new Point(0, e.getY()) );
+
+		if (row == -1) return;
+
+		ListSelectionModel selectionModel = main.getSelectionModel();
+
+		if (dragged || e.isShiftDown())
+		{
+			if (anchorRow == -1) anchorRow = row;
+
+			if (e.isControlDown())
+				selectionModel.addSelectionInterval(anchorRow, row);
+			else
+				selectionModel.setSelectionInterval(anchorRow, row);
+		}
+		else
+		{
+			anchorRow = row;
+
+			if (e.isControlDown() && selectionModel.isSelectedIndex(row))
+				selectionModel.removeSelectionInterval(row, row);
+			else if (e.isControlDown())
+				selectionModel.addSelectionInterval(row, row);
+			else
+				selectionModel.setSelectionInterval(row, row);
+		}
+
+		main.scrollRectToVisible( main.getCellRect(row, 0, false) );
+	}
+//
+//  Implement the PropertyChangeListener
+//
+	public void propertyChange(PropertyChangeEvent e)
+	{
+		//  Keep the row header in sync with the main table
+
+		String property = e.getPropertyName();
+
+		if ("selectionModel".equals(property))
+		{
+			((ListSelectionModel)e.getOldValue()).removeListSelectionListener( this );
+			main.getSelectionModel().addListSelectionListener( this );
+			repaint();
+		}
+
+		if ("model".equals(property))
+		{
+			((TableModel)e.getOldValue()).removeTableModelListener( this );
+			main.getModel().addTableModelListener( this );
+			revalidate();
+			repaint();
+		}
+
+		if ("rowSorter".equals(property))
+		{
+			if (e.getOldValue() != null)
+				((RowSorter<?>)e.getOldValue()).removeRowSorterListener( this );
+
+			if (e.getNewValue() != null)
+				((RowSorter<?>)e.getNewValue()).addRowSorterListener( this );
+		}
+
+		if ("rowHeight".equals(property)
+		||  "rowSorter".equals(property))
+		{
+			revalidate();
+			repaint();
+		}
+	}
+//
+//  Implement the TableModelListener
+//
+	public void tableChanged(TableModelEvent e)
+	{
+		//  The width only changes when the number of digits changes, but the
+		//  height changes whenever rows are added or removed
+
+		if (e.getType() != TableModelEvent.UPDATE
+		||  e.getFirstRow() == TableModelEvent.HEADER_ROW
+		||  e.getLastRow() == Integer.MAX_VALUE)
+		{
+			revalidate();
+			repaint();
+		}
+	}
+//
+//  Implement the RowSorterListener
+//
+	public void sorterChanged(RowSorterEvent e)
+	{
+		//  A filter changes the number of rows without a TableModelEvent
+
+		if (e.getType() == RowSorterEvent.Type.SORTED)
+		{
+			revalidate();
+			repaint();
+		}
+	}
+//
+//  Implement the ListSelectionListener
+//
+	public void valueChanged(ListSelectionEvent e)
+	{
+		//  Repaint only the rows whose selection has changed
+
+		int first = Math.max(e.getFirstIndex(), 0);
+		int last = Math.min(e.getLastIndex(), main.getRowCount() - 1);
+
+		if (first > last) return;
+
+		Rectangle r1 = main.getCellRect(first, 0, true);
+		Rectangle r2 = main.getCellRect(last, 0, true);
+		repaint(0, r1.y, getWidth(), r2.y + r2.height - r1.y);
+	}
+}
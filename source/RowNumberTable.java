@@ -9,6 +9,9 @@ import javax.swing.table.*;
  *  Use a JTable as a renderer for row numbers of a given main table.
  *  This table must be added to the row header of the scrollpane that
  *  contains the main table.
+ *
+ *  For very large tables use a RowNumberHeader, which paints the row numbers
+ *  directly instead of rendering a cell for each row.
  */
 public class RowNumberTable extends JTable
 	implements ChangeListener, PropertyChangeListener
@@ -1,24 +1,40 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
+import java.util.List;
 import javax.swing.*;
 
 /*
  *  Custom model to make sure the items are stored in a sorted order.
  *  The default is to sort in the natural order of the item, but a
  *  Comparator can be used to customize the sort order.
+ *
+ *  The position of an added item is found with a binary search. A group of
+ *  items can be loaded with addAll(...) or setElements(...), which sort all
+ *  the items once and notify the listeners with a single event.
+ *
+ *  Optionally, an item that compares equal to an item already in the model
+ *  can be ignored.
+ *
+ *  The items are kept in a List of the model, so a group of items can be
+ *  sorted in place. Otherwise the model behaves like a DefaultComboBoxModel.
  */
 //class SortedComboBoxModel extends DefaultComboBoxModel
-class SortedComboBoxModel<E> extends DefaultComboBoxModel<E>
+class SortedComboBoxModel<E> extends AbstractListModel<E>
+	implements MutableComboBoxModel<E>
 {
 	private Comparator comparator;
+	private boolean duplicatesAllowed = true;
+
+	private List<E> items;
+	private Object selectedObject;
 
 	/*
 	 *  Create an empty model that will use the natural sort order of the item
 	 */
 	public SortedComboBoxModel()
 	{
-		super();
+		this( null, new ArrayList<E>() );
 	}
 
 	/*
@@ -26,8 +42,7 @@ class SortedComboBoxModel<E> extends DefaultComboBoxModel<E>
 	 */
 	public SortedComboBoxModel(Comparator comparator)
 	{
-		super();
-		this.comparator = comparator;
+		this( comparator, new ArrayList<E>() );
 	}
 
 	/*
@@ -43,12 +58,7 @@ class SortedComboBoxModel<E> extends DefaultComboBoxModel<E>
 	 */
 	public SortedComboBoxModel(E items[], Comparator comparator)
 	{
-		this.comparator = comparator;
-
-		for (E item : items)
-		{
-            addElement( item );
-        }
+		this( comparator, new ArrayList<E>(Arrays.asList(items)) );
 	}
 
 	/*
@@ -65,47 +75,129 @@ class SortedComboBoxModel<E> extends DefaultComboBoxModel<E>
 
 	public SortedComboBoxModel(Vector<E> items, Comparator comparator)
 	{
+		this( comparator, new ArrayList<E>(items) );
+	}
+
+	/*
+	 *  The items are sorted once. The first item is selected.
+	 */
+	private SortedComboBoxModel(Comparator comparator, List<E> items)
+	{
+		this.items = sort(items, comparator);
 		this.comparator = comparator;
 
-		for (E item : items)
+		if (items.size() > 0)
+			selectedObject = items.get(0);
+	}
+
+	/*
+	 *  Get the duplicates allowed property
+	 */
+	public boolean isDuplicatesAllowed()
+	{
+		return duplicatesAllowed;
+	}
+
+	/*
+	 *  When duplicates are not allowed, an item that compares equal to an
+	 *  item in the model, using the Comparator or the natural sort order,
+	 *  is not added. Duplicates already in the model are removed. When the
+	 *  selected item is removed, the item equal to it is selected.
+	 */
+	public void setDuplicatesAllowed(boolean duplicatesAllowed)
+	{
+		this.duplicatesAllowed = duplicatesAllowed;
+
+		if (duplicatesAllowed) return;
+
+		int oldSize = items.size();
+		boolean listed = selectedObject != null && items.contains( selectedObject );
+
+		if (removeDuplicates())
+		{
+			fireContentsChanged(this, 0, oldSize - 1);
+
+			if (listed && ! items.contains( selectedObject ))
+				selectEqualItem();
+		}
+	}
+
+//
+//  Implement the ListModel interface
+//
+	@Override
+	public int getSize()
+	{
+		return items.size();
+	}
+
+	@Override
+	public E getElementAt(int index)
+	{
+		return index >= 0 && index < items.size() ? items.get(index) : null;
+	}
+
+//
+//  Implement the ComboBoxModel interface
+//
+	@Override
+	public void setSelectedItem(Object item)
+	{
+		if ((selectedObject != null && ! selectedObject.equals( item ))
+		||  (selectedObject == null && item != null))
 		{
-            addElement( item );
-        }
+			selectedObject = item;
+			fireContentsChanged(this, -1, -1);
+		}
+	}
+
+	@Override
+	public Object getSelectedItem()
+	{
+		return selectedObject;
 	}
 
+//
+//  Implement the MutableComboBoxModel interface
+//
 	@Override
 	public void addElement(E element)
 	{
 		insertElementAt(element, 0);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void insertElementAt(E element, int index)
 	{
-		int size = getSize();
+		//  Determine where to insert element to keep model in sorted order.
+		//  Equal elements are inserted after the existing elements.
 
-		//  Determine where to insert element to keep model in sorted order
+		int low = 0;
+		int high = items.size();
 
-		for (index = 0; index < size; index++)
+		while (low < high)
 		{
-			if (comparator != null)
-			{
-				E o = getElementAt( index );
+			int middle = (low + high) >>> 1;
+			int result = compare(items.get(middle), element);
 
-				if (comparator.compare(o, element) > 0)
-					break;
-			}
-			else
-			{
-				Comparable c = (Comparable)getElementAt( index );
+			if (result == 0 && ! duplicatesAllowed)
+				return;
 
-				if (c.compareTo(element) > 0)
-					break;
-			}
+			if (result > 0)
+				high = middle;
+			else
+				low = middle + 1;
 		}
 
-		super.insertElementAt(element, index);
+		index = low;
+
+		if (! duplicatesAllowed
+		&&  index > 0
+		&&  compare(items.get(index - 1), element) == 0)
+			return;
+
+		items.add(index, element);
+		fireIntervalAdded(this, index, index);
 
 		//  Select an element when it is added to the beginning of the model
 
@@ -114,4 +206,199 @@ class SortedComboBoxModel<E> extends DefaultComboBoxModel<E>
 			setSelectedItem( element );
 		}
 	}
+
+	/*
+	 *  When the selected item is removed, the previous item is selected, or
+	 *  the next item when the first item is removed
+	 */
+	@Override
+	public void removeElementAt(int index)
+	{
+		if (getElementAt(index) == selectedObject)
+		{
+			if (index == 0)
+				setSelectedItem( getSize() == 1 ? null : getElementAt(index + 1) );
+			else
+				setSelectedItem( getElementAt(index - 1) );
+		}
+
+		items.remove( index );
+		fireIntervalRemoved(this, index, index);
+	}
+
+	@Override
+	public void removeElement(Object element)
+	{
+		int index = items.indexOf( element );
+
+		if (index != -1)
+			removeElementAt( index );
+	}
+
+	/*
+	 *  Get the index of the item, or -1 when it is not in the model
+	 */
+	public int getIndexOf(Object element)
+	{
+		return items.indexOf( element );
+	}
+
+	/*
+	 *  Remove all the items. The selected item is cleared.
+	 */
+	public void removeAllElements()
+	{
+		int size = items.size();
+		items.clear();
+		selectedObject = null;
+
+		if (size > 0)
+			fireIntervalRemoved(this, 0, size - 1);
+	}
+
+	/*
+	 *  Add all the items and sort the model once. A single contentsChanged
+	 *  event is fired.
+	 */
+	public void addAll(Collection<? extends E> c)
+	{
+		if (c.isEmpty()) return;
+
+		int oldSize = items.size();
+		items.addAll( c );
+		sort(items, comparator);
+
+		if (! duplicatesAllowed)
+			removeDuplicates();
+
+		fireContentsChanged(this, 0, Math.max(oldSize, items.size()) - 1);
+
+		if (getSelectedItem() == null && items.size() > 0)
+			setSelectedItem( items.get(0) );
+	}
+
+	/*
+	 *  The index is ignored since the items are added in sorted order
+	 */
+	public void addAll(int index, Collection<? extends E> c)
+	{
+		addAll( c );
+	}
+
+	/*
+	 *  Replace all the items of the model and sort the model once. A single
+	 *  contentsChanged event is fired. The first item is selected, unless
+	 *  the selected item is still in the model.
+	 */
+	public void setElements(Collection<? extends E> c)
+	{
+		int oldSize = items.size();
+		Object selected = getSelectedItem();
+		items.clear();
+		items.addAll( c );
+		sort(items, comparator);
+
+		if (! duplicatesAllowed)
+			removeDuplicates();
+
+		if (oldSize > 0 || items.size() > 0)
+			fireContentsChanged(this, 0, Math.max(oldSize, items.size()) - 1);
+
+		if (selected == null || ! items.contains(selected))
+			setSelectedItem( items.size() > 0 ? items.get(0) : null );
+	}
+
+	/*
+	 *  The selected item was removed as a duplicate, so select the item that
+	 *  was kept in its place
+	 */
+	private void selectEqualItem()
+	{
+		int index = indexOfEqual( selectedObject );
+		setSelectedItem( index == -1 ? null : items.get(index) );
+	}
+
+	/*
+	 *  Binary search for an item that compares equal to the element
+	 */
+	private int indexOfEqual(Object element)
+	{
+		int low = 0;
+		int high = items.size() - 1;
+
+		while (low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			int result = compare(items.get(middle), element);
+
+			if (result == 0)
+				return middle;
+
+			if (result > 0)
+				high = middle - 1;
+			else
+				low = middle + 1;
+		}
+
+		return -1;
+	}
+
+	/*
+	 *  Sort the items in place. Large models are sorted in parallel.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> List<E> sort(List<E> items, final Comparator comparator)
+	{
+		Object[] array = items.toArray();
+		Arrays.parallelSort(array, new Comparator<Object>()
+		{
+			public int compare(Object o1, Object o2)
+			{
+				return SortedComboBoxModel.compare(o1, o2, comparator);
+			}
+		});
+
+		for (int i = 0; i < array.length; i++)
+			items.set(i, (E)array[i]);
+
+		return items;
+	}
+
+	/*
+	 *  The items are sorted, so duplicates are adjacent. The first of each
+	 *  group of equal items is kept.
+	 */
+	private boolean removeDuplicates()
+	{
+		int size = items.size();
+		int kept = Math.min(size, 1);
+
+		for (int i = 1; i < size; i++)
+		{
+			E item = items.get(i);
+
+			if (compare(items.get(kept - 1), item) != 0)
+				items.set(kept++, item);
+		}
+
+		if (kept == size) return false;
+
+		items.subList(kept, size).clear();
+
+		return true;
+	}
+
+	private int compare(Object o1, Object o2)
+	{
+		return compare(o1, o2, comparator);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static int compare(Object o1, Object o2, Comparator comparator)
+	{
+		if (comparator != null)
+			return comparator.compare(o1, o2);
+		else
+			return ((Comparable)o1).compareTo(o2);
+	}
 }
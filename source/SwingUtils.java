@@ -6,15 +6,25 @@
 
 import java.awt.Component;
 import java.awt.Container;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.JComponent;
 import javax.swing.UIDefaults;
 import javax.swing.UIManager;
@@ -58,6 +68,11 @@ public final class SwingUtils {
     * <P>
     * Invoking this method with a class parameter of JComponent.class
     * will return all nested components.
+    * <P>
+    * When <code>nested</code> is true and the container is part of a
+    * hierarchy with an installed <code>ComponentIndex</code>, the index is
+    * used instead of a search and the components are listed in the order they
+    * were added to the hierarchy.
     * 
     * @param clazz the class of components whose instances are to be found.
     * @param container the container at which to begin the search
@@ -67,17 +82,27 @@ public final class SwingUtils {
     */
    public static <T extends JComponent> List<T> getDescendantsOfType(
          Class<T> clazz, Container container, boolean nested) {
+      if (nested) {
+         ComponentIndex index = ComponentIndex.getIndexFor(container);
+         if (index != null) {
+            return index.getDescendantsOfType(clazz, container);
+         }
+      }
       List<T> tList = new ArrayList<T>();
+      addDescendantsOfType(tList, clazz, container, nested);
+      return tList;
+   }
+
+   private static <T extends JComponent> void addDescendantsOfType(
+         List<T> tList, Class<T> clazz, Container container, boolean nested) {
       for (Component component : container.getComponents()) {
          if (clazz.isAssignableFrom(component.getClass())) {
             tList.add(clazz.cast(component));
          }
          if (nested || !clazz.isAssignableFrom(component.getClass())) {
-            tList.addAll(SwingUtils.<T>getDescendantsOfType(clazz,
-                  (Container) component, nested));
+            addDescendantsOfType(tList, clazz, (Container) component, nested);
          }
       }
-      return tList;
    }
 
    /**
@@ -152,6 +177,11 @@ public final class SwingUtils {
     * component hierarchy and return nested components of class
     * <code>clazz</code> it finds.  Returns an empty list if no such
     * components exist in the container.
+    * <P>
+    * When <code>nested</code> is true and the container is part of a
+    * hierarchy with an installed <code>ComponentIndex</code>, the index is
+    * used instead of a search and the components are listed in the order they
+    * were added to the hierarchy.
     * 
     * @param clazz the class of components to be found.
     * @param container the container at which to begin the search
@@ -161,17 +191,27 @@ public final class SwingUtils {
     */
    public static <T extends JComponent> List<T> getDescendantsOfClass(
          Class<T> clazz, Container container, boolean nested) {
+      if (nested) {
+         ComponentIndex index = ComponentIndex.getIndexFor(container);
+         if (index != null) {
+            return index.getDescendantsOfClass(clazz, container);
+         }
+      }
       List<T> tList = new ArrayList<T>();
+      addDescendantsOfClass(tList, clazz, container, nested);
+      return tList;
+   }
+
+   private static <T extends JComponent> void addDescendantsOfClass(
+         List<T> tList, Class<T> clazz, Container container, boolean nested) {
       for (Component component : container.getComponents()) {
          if (clazz.equals(component.getClass())) {
             tList.add(clazz.cast(component));
          }
          if (nested || !clazz.equals(component.getClass())) {
-            tList.addAll(SwingUtils.<T>getDescendantsOfClass(clazz,
-                  (Container) component, nested));
+            addDescendantsOfClass(tList, clazz, (Container) component, nested);
          }
       }
-      return tList;
    }
 
    /**
@@ -384,6 +424,14 @@ public final class SwingUtils {
       setExclude.add("getGraphicsConfiguration");
    }
 
+   /**
+    * Property tables by class, built from the contents of setExclude at the
+    * time they were built
+    */
+   private static final Map<Class<?>, PropertyTable> propertyTables =
+         new ConcurrentHashMap<Class<?>, PropertyTable>();
+   private static Set<String> propertyTablesExclude = Collections.emptySet();
+
    /**
     * Convenience method for obtaining most non-null human readable properties
     * of a JComponent.  Array properties are not included.
@@ -395,32 +443,203 @@ public final class SwingUtils {
     * @return the class and value of the properties
     */
    public static Map<Object, Object> getProperties(JComponent component) {
+      return getProperties(component, false);
+   }
+
+   /**
+    * Convenience method for obtaining most human readable properties of a
+    * JComponent.  Array properties are not included.
+    * <P>
+    * The getters of each class are looked up once and shared by all calls for
+    * that class. Methods named in setExclude are removed at that time.
+    * <P>
+    * When <code>lazy</code> is false all getters are invoked and only the
+    * non-null values are returned, as for getProperties(component).
+    * <P>
+    * When <code>lazy</code> is true the returned Map contains a key for every
+    * property of the class, but a getter is only invoked the first time its
+    * value is requested. This suits a property inspector that only displays
+    * some of the properties at a time. The value of a property is null when
+    * the getter returns null or a Component, or can't be invoked. The Map is
+    * unmodifiable.
+    * 
+    * @param component the component whose proerties are to be determined
+    * @param lazy true to invoke the getters only when a value is requested
+    * @return the class and value of the properties
+    */
+   public static Map<Object, Object> getProperties(JComponent component,
+         boolean lazy) {
+      PropertyTable table = getPropertyTable(component.getClass());
+      if (lazy) {
+         return new LazyProperties(table, component);
+      }
       Map<Object, Object> retVal = new HashMap<Object, Object>();
-      Class<?> clazz = component.getClass();
-      Method[] methods = clazz.getMethods();
-      Object value = null;
-      for (Method method : methods) {
-         if (method.getName().matches("^(is|get).*") &&
-               method.getParameterTypes().length == 0) {
-            try {
-               Class returnType = method.getReturnType();
-               if (returnType != void.class &&
-                     !returnType.getName().startsWith("[") &&
-                     !setExclude.contains(method.getName())) {
-                  String key = method.getName();
-                  value = method.invoke(component);
-                  if (value != null && !(value instanceof Component)) {
-                     retVal.put(key, value);
+      for (int i = 0; i < table.names.length; i++) {
+         Object value = table.getValue(i, component);
+         if (value != null) {
+            retVal.put(table.names[i], value);
+         }
+      }
+      return retVal;
+   }
+
+   private static PropertyTable getPropertyTable(Class<?> clazz) {
+      synchronized (propertyTables) {
+         if (!propertyTablesExclude.equals(setExclude)) {
+            propertyTables.clear();
+            propertyTablesExclude = new HashSet<String>(setExclude);
+         }
+      }
+      PropertyTable table = propertyTables.get(clazz);
+      if (table == null) {
+         table = new PropertyTable(clazz, propertyTablesExclude);
+         propertyTables.put(clazz, table);
+      }
+      return table;
+   }
+
+   /**
+    * The readable properties of a class, with a MethodHandle for each getter
+    */
+   private static class PropertyTable {
+
+      private final String[] names;
+      private final MethodHandle[] getters;
+      private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+
+      PropertyTable(Class<?> clazz, Set<String> exclude) {
+         List<String> nameList = new ArrayList<String>();
+         List<MethodHandle> getterList = new ArrayList<MethodHandle>();
+         MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+         MethodType type = MethodType.methodType(Object.class, Object.class);
+         for (Method method : clazz.getMethods()) {
+            String name = method.getName();
+            Class<?> returnType = method.getReturnType();
+            if ((name.startsWith("is") || name.startsWith("get")) &&
+                  method.getParameterTypes().length == 0 &&
+                  returnType != void.class &&
+                  !returnType.isArray() &&
+                  !exclude.contains(name)) {
+               try {
+                  MethodHandle getter = lookup.unreflect(method);
+                  // a static getter ignores the component
+                  if (Modifier.isStatic(method.getModifiers())) {
+                     getter = MethodHandles.dropArguments(getter, 0, Object.class);
                   }
+                  getterList.add(getter.asType(type));
+                  nameList.add(name);
+               // ignore getters that can't be accessed, as invoking them would fail
+               } catch (IllegalAccessException ex) {
                }
-            // ignore exceptions that arise if the property could not be accessed
-            } catch (IllegalAccessException ex) {
-            } catch (IllegalArgumentException ex) {
-            } catch (InvocationTargetException ex) {
             }
          }
+         names = nameList.toArray(new String[nameList.size()]);
+         getters = getterList.toArray(new MethodHandle[getterList.size()]);
+         for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+         }
+      }
+
+      /**
+       * Returns the value of a property, or null if the value is null, a
+       * Component or the getter throws an exception
+       */
+      Object getValue(int index, JComponent component) {
+         try {
+            Object value = getters[index].invokeExact((Object) component);
+            return value instanceof Component ? null : value;
+         // ignore exceptions that arise if the property could not be accessed
+         } catch (Throwable ex) {
+            return null;
+         }
+      }
+   }
+
+   /**
+    * A Map of all the properties of a component, invoking each getter only
+    * the first time its value is requested
+    */
+   private static class LazyProperties extends AbstractMap<Object, Object> {
+
+      private static final Object UNRESOLVED = new Object();
+
+      private final PropertyTable table;
+      private final JComponent component;
+      private final Object[] values;
+
+      LazyProperties(PropertyTable table, JComponent component) {
+         this.table = table;
+         this.component = component;
+         values = new Object[table.names.length];
+         Arrays.fill(values, UNRESOLVED);
+      }
+
+      private Object getValue(int index) {
+         if (values[index] == UNRESOLVED) {
+            values[index] = table.getValue(index, component);
+         }
+         return values[index];
+      }
+
+      @Override
+      public int size() {
+         return values.length;
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+         return table.indexes.containsKey(key);
+      }
+
+      @Override
+      public Object get(Object key) {
+         Integer index = table.indexes.get(key);
+         return index == null ? null : getValue(index);
+      }
+
+      /**
+       * The keys are available without invoking any getter
+       */
+      @Override
+      public Set<Object> keySet() {
+         return Collections.<Object>unmodifiableSet(table.indexes.keySet());
+      }
+
+      @Override
+      public Set<Map.Entry<Object, Object>> entrySet() {
+         return new AbstractSet<Map.Entry<Object, Object>>() {
+
+            @Override
+            public int size() {
+               return values.length;
+            }
+
+            @Override
+            public Iterator<Map.Entry<Object, Object>> iterator() {
+               return new Iterator<Map.Entry<Object, Object>>() {
+
+                  private int next;
+
+                  public boolean hasNext() {
+                     return next < values.length;
+                  }
+
+                  public Map.Entry<Object, Object> next() {
+                     if (next >= values.length) {
+                        throw new NoSuchElementException();
+                     }
+                     int index = next++;
+                     return new AbstractMap.SimpleImmutableEntry<Object, Object>(
+                           table.names[index], getValue(index));
+                  }
+
+                  public void remove() {
+                     throw new UnsupportedOperationException();
+                  }
+               };
+            }
+         };
       }
-      return retVal;
    }
 
    /**
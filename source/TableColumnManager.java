@@ -15,6 +15,13 @@ import javax.swing.table.*;
  *  the view for the table. The manager will inovoke the appropriate methods
  *  of the TableColumnModel to hide/show columns as required.
  *
+ *  Optionally the TableModel of the table can be replaced by a
+ *  ProjectedTableModel, which only provides the values of the visible
+ *  columns. RowSorters, RowFilters and any other code using the TableModel of
+ *  the table will then never request the values of a hidden column. The
+ *  column indexes of the ProjectedTableModel are the same as those of the
+ *  original TableModel.
+ *
  */
 public class TableColumnManager
 	implements MouseListener, ActionListener, TableColumnModelListener, PropertyChangeListener
@@ -25,6 +32,11 @@ public class TableColumnManager
 
 	private List<TableColumn> allColumns;
 
+	private boolean projectionEnabled;
+	private ProjectedTableModel projection;
+	private boolean installing;
+	private boolean projectionPending;
+
 	/**
 	 *  Convenience constructor for creating a TableColumnManager for a table.
 	 *  Support for a popup menu on the table header will be enabled.
@@ -74,6 +86,233 @@ public class TableColumnManager
 		{
 			allColumns.add( tcm.getColumn( i ) );
 		}
+
+		updateProjection();
+	}
+
+	/**
+	 *  Get the projection enabled property
+	 *
+	 *  @returns the projection enabled property
+	 */
+	public boolean isProjectionEnabled()
+	{
+		return projectionEnabled;
+	}
+
+	/**
+	 *  Replace the TableModel of the table with a ProjectedTableModel that
+	 *  only provides the values of the visible columns, or restore the
+	 *  original TableModel. A RowSorter created by autoCreateRowSorter is
+	 *  recreated for the new model, and a TableRowSorter of the old model is
+	 *  changed to use the new model.
+	 *
+	 *  Changing the model of the table would normally lose the state of the
+	 *  table, so the sort keys and the selected rows are restored after the
+	 *  change, and a cell being edited is stopped before the change.
+	 *
+	 *  @param projectionEnabled true to use a ProjectedTableModel
+	 */
+	public void setProjectionEnabled(boolean projectionEnabled)
+	{
+		if (this.projectionEnabled == projectionEnabled) return;
+
+		this.projectionEnabled = projectionEnabled;
+
+		if (projectionEnabled)
+		{
+			installModel( new ProjectedTableModel(table.getModel()) );
+		}
+		else if (projection != null)
+		{
+			ProjectedTableModel old = projection;
+			projection = null;
+			installModel( old.getModel() );
+			old.dispose();
+		}
+	}
+
+	/**
+	 *  Get the ProjectedTableModel used by the table
+	 *
+	 *  @returns the ProjectedTableModel, or null when projection is disabled
+	 */
+	public ProjectedTableModel getProjectedModel()
+	{
+		return projection;
+	}
+
+	/*
+	 *  Change the TableModel of the table without recreating the TableColumns
+	 */
+	private void installModel(TableModel model)
+	{
+		if (model instanceof ProjectedTableModel)
+			projection = (ProjectedTableModel)model;
+
+		//  The table will create new TableColumns in a temporary
+		//  TableColumnModel when autoCreateColumnsFromModel is true
+
+		TableModel oldModel = table.getModel();
+		RowSorter<? extends TableModel> sorter = table.getRowSorter();
+		List<? extends RowSorter.SortKey> sortKeys =
+			sorter == null ? null : sorter.getSortKeys();
+
+		//  The editor is removed when the model changes, so save the value
+
+		if (table.isEditing())
+			table.getCellEditor().stopCellEditing();
+
+		ListSelectionModel selection = table.getSelectionModel();
+		int[] rows = table.getSelectedRows();
+
+		for (int i = 0; i < rows.length; i++)
+			rows[i] = table.convertRowIndexToModel( rows[i] );
+
+		int anchor = convertRowIndexToModel( selection.getAnchorSelectionIndex() );
+		int lead = convertRowIndexToModel( selection.getLeadSelectionIndex() );
+
+		installing = true;
+		table.setColumnModel( new DefaultTableColumnModel() );
+		table.setModel( model );
+		table.setColumnModel( tcm );
+		installing = false;
+
+		//  A RowSorter created by autoCreateRowSorter was already recreated
+
+		if (! table.getAutoCreateRowSorter()
+		&&  sorter instanceof TableRowSorter
+		&&  sorter.getModel() == oldModel)
+			setSorterModel((TableRowSorter<?>)sorter, model);
+
+		//  The sort keys are lost when the model of a sorter changes
+
+		sorter = table.getRowSorter();
+
+		if (sorter != null
+		&&  sortKeys != null
+		&&  sorter.getModel() == model)
+			sorter.setSortKeys( sortKeys );
+
+		//  Select the same rows of the new model
+
+		selection.setValueIsAdjusting( true );
+		selection.clearSelection();
+
+		for (int row : rows)
+		{
+			int viewRow = convertRowIndexToView( row );
+
+			if (viewRow != -1)
+				selection.addSelectionInterval(viewRow, viewRow);
+		}
+
+		anchor = convertRowIndexToView( anchor );
+		lead = convertRowIndexToView( lead );
+
+		if (anchor != -1 && lead != -1)
+		{
+			selection.setAnchorSelectionIndex( anchor );
+
+			if (selection instanceof DefaultListSelectionModel)
+				((DefaultListSelectionModel)selection).moveLeadSelectionIndex( lead );
+		}
+
+		selection.setValueIsAdjusting( false );
+
+		updateProjection();
+	}
+
+	/*
+	 *  Convert a row index, which may be out of range, to the model
+	 */
+	private int convertRowIndexToModel(int viewRow)
+	{
+		if (viewRow < 0 || viewRow >= table.getRowCount())
+			return -1;
+
+		return table.convertRowIndexToModel( viewRow );
+	}
+
+	/*
+	 *  Convert a row index, which may be out of range, to the view
+	 */
+	private int convertRowIndexToView(int modelRow)
+	{
+		if (modelRow < 0 || modelRow >= table.getModel().getRowCount())
+			return -1;
+
+		return table.convertRowIndexToView( modelRow );
+	}
+
+	/*
+	 *  The RowFilter is kept, the column indexes of both models are the
+	 *  same
+	 */
+	@SuppressWarnings("unchecked")
+	private static void setSorterModel(TableRowSorter<?> sorter, TableModel model)
+	{
+		((TableRowSorter<TableModel>)sorter).setModel( model );
+	}
+
+	/*
+	 *  The table notifies its listeners of a new model before it creates the
+	 *  RowSorter for the new model, so the new model is projected after the
+	 *  table has finished changing the model.
+	 */
+	private void invokeInstallProjection()
+	{
+		final TableModel model = table.getModel();
+
+		SwingUtilities.invokeLater(new Runnable()
+		{
+			public void run()
+			{
+				if (projectionEnabled
+				&&  projection == null
+				&&  table.getModel() == model)
+					installModel( new ProjectedTableModel(model) );
+			}
+		});
+	}
+
+	/*
+	 *  Make the columns in the TableColumnModel visible in the projection
+	 */
+	private void updateProjection()
+	{
+		if (projection == null) return;
+
+		int count = tcm.getColumnCount();
+		int[] columns = new int[count];
+
+		for (int i = 0; i < count; i++)
+		{
+			columns[i] = tcm.getColumn( i ).getModelIndex();
+		}
+
+		projection.setVisibleColumns( columns );
+	}
+
+	/*
+	 *  Columns are added and removed one at a time when the TableColumnModel
+	 *  is recreated, so the projection is only updated once all have been
+	 *  processed.
+	 */
+	private void invokeUpdateProjection()
+	{
+		if (projection == null || projectionPending) return;
+
+		projectionPending = true;
+
+		SwingUtilities.invokeLater(new Runnable()
+		{
+			public void run()
+			{
+				projectionPending = false;
+				updateProjection();
+			}
+		});
 	}
 
 	/**
@@ -156,6 +395,8 @@ public class TableColumnManager
 		tcm.removeColumnModelListener( this );
 		tcm.removeColumn( column );
 		tcm.addColumnModelListener( this );
+
+		updateProjection();
 	}
 
 	/**
@@ -233,6 +474,8 @@ public class TableColumnManager
 		tcm.moveColumn(from, to);
 
 		tcm.addColumnModelListener( this );
+
+		updateProjection();
 	}
 //
 //  Implement MouseListener
@@ -337,6 +580,7 @@ public class TableColumnManager
 		//  to update the manager to track this column
 
 		TableColumn column = tcm.getColumn( e.getToIndex() );
+		invokeUpdateProjection();
 
 		if (allColumns.contains( column ))
 			return;
@@ -370,7 +614,11 @@ public class TableColumnManager
 	}
 
 	public void columnMarginChanged(ChangeEvent e) {}
-	public void columnRemoved(TableColumnModelEvent e) {}
+	public void columnRemoved(TableColumnModelEvent e)
+	{
+		invokeUpdateProjection();
+	}
+
 	public void columnSelectionChanged(ListSelectionEvent e) {}
 //
 //  Implement PropertyChangeListener
@@ -379,8 +627,22 @@ public class TableColumnManager
 	{
 		if ("model".equals(e.getPropertyName()))
 		{
+			if (installing) return;
+
+			//  A new TableModel was set on the table, so stop projecting
+			//  the old TableModel and project the new TableModel
+
+			if (projection != null)
+			{
+				projection.dispose();
+				projection = null;
+			}
+
 			if (table.getAutoCreateColumnsFromModel())
 				reset();
+
+			if (projectionEnabled)
+				invokeInstallProjection();
 		}
 	}
 
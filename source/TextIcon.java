@@ -4,6 +4,7 @@ import java.util.*;
 import javax.swing.*;
 
 import java.awt.font.*;
+import java.text.Bidi;
 
 /**
  *  The TextIcon will paint a String of text as an Icon. The Icon
@@ -26,6 +27,12 @@ import java.awt.font.*;
  *  these properties. Also starting in JDK6 the desktop renderering hints will
  *  be used to renderer the text. For versions not supporting the rendering
  *  hints antialiasing will be turned on.
+ *
+ *  The text is laid out once into a GlyphVector which is used to both
+ *  calculate the size of the Icon and to paint it. Text that requires bidi
+ *  reordering or complex script shaping, like Arabic, Hebrew or Thai, is laid
+ *  out into TextLayouts instead. The laid out text is shared by all TextIcons
+ *  with the same text, Font, FontRenderContext and Layout.
  */
 public class TextIcon implements Icon, PropertyChangeListener
 {
@@ -52,11 +59,24 @@ public class TextIcon implements Icon, PropertyChangeListener
 	private int iconWidth;
 	private int iconHeight;
 
-	//  Used for Layout.VERTICAL to save reparsing the text every time the
-	//  icon is repainted
+	//  Used to save laying out the text every time the icon is repainted
+
+	private TextGlyphs glyphs;
+
+	//  Shared by all TextIcons, the least recently used entry is removed
+	//  when the cache is full
 
-	private String[] strings;
-	private int[] stringWidths;
+	private final static int GLYPH_CACHE_SIZE = 1024;
+
+	private final static Map<GlyphKey, TextGlyphs> glyphCache =
+		new LinkedHashMap<GlyphKey, TextGlyphs>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<GlyphKey, TextGlyphs> eldest)
+			{
+				return size() > GLYPH_CACHE_SIZE;
+			}
+		};
 
 	/**
 	 *  Convenience constructor to create a TextIcon with a HORIZONTAL layout.
@@ -202,40 +222,59 @@ public class TextIcon implements Icon, PropertyChangeListener
 	{
 		Font font = getFont();
 		FontMetrics fm = component.getFontMetrics( font );
+		glyphs = getGlyphs(text, fm, getFontRenderContext(fm), layout);
 
 		if (layout == Layout.HORIZONTAL)
 		{
-		 	iconWidth = fm.stringWidth( text ) + (padding * 2);
-		 	iconHeight = fm.getHeight();
+		 	iconWidth = glyphs.width + (padding * 2);
+		 	iconHeight = glyphs.height;
 		}
 		else if (layout == Layout.VERTICAL)
 		{
-			int maxWidth = 0;
-			strings = new String[text.length()];
-			stringWidths = new int[text.length()];
+			iconWidth = glyphs.width;
+			iconHeight = glyphs.height + (padding * 2);
+		}
 
-			//  Find the widest character in the text string
+		component.revalidate();
+	}
 
-			for (int i = 0; i < text.length(); i++)
-			{
-				strings[i] = text.substring(i, i + 1);
-				stringWidths[i] = fm.stringWidth( strings[i] );
-				maxWidth = Math.max(maxWidth, stringWidths[i]);
-			}
+	/*
+	 *  A GlyphVector is rendered using the antialiasing of its own
+	 *  FontRenderContext, so it must match the hints used by paintIcon()
+	 */
+	private FontRenderContext getFontRenderContext(FontMetrics fm)
+	{
+		Toolkit toolkit = Toolkit.getDefaultToolkit();
+		Map map = (Map)(toolkit.getDesktopProperty("awt.font.desktophints"));
+		Object antialiasing = RenderingHints.VALUE_TEXT_ANTIALIAS_ON;
 
-			//  Add a minimum of 2 extra pixels, plus the leading value,
-			//  on each side of the character.
+		if (map != null
+		&&  map.get(RenderingHints.KEY_TEXT_ANTIALIASING) != null)
+			antialiasing = map.get(RenderingHints.KEY_TEXT_ANTIALIASING);
 
-			iconWidth = maxWidth + ((fm.getLeading() + 2) * 2);
+		FontRenderContext frc = fm.getFontRenderContext();
+		return new FontRenderContext(frc.getTransform(), antialiasing, frc.getFractionalMetricsHint());
+	}
 
-			//  Decrease then normal gap betweens lines of text by taking into
-			//  account the descent.
+	/*
+	 *  Get the laid out text from the cache, creating it when required
+	 */
+	private static TextGlyphs getGlyphs(String text, FontMetrics fm, FontRenderContext frc, Layout layout)
+	{
+		GlyphKey key = new GlyphKey(text, fm.getFont(), frc, layout);
 
-			iconHeight = (fm.getHeight() - fm.getDescent()) * text.length();
-			iconHeight += padding * 2;
-		}
+		synchronized(glyphCache)
+		{
+			TextGlyphs glyphs = glyphCache.get( key );
 
-		component.revalidate();
+			if (glyphs == null)
+			{
+				glyphs = new TextGlyphs(text, fm, frc, layout);
+				glyphCache.put(key, glyphs);
+			}
+
+			return glyphs;
+		}
 	}
 //
 //  Implement the Icon Interface
@@ -288,26 +327,22 @@ public class TextIcon implements Icon, PropertyChangeListener
 			g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
 				RenderingHints.VALUE_TEXT_ANTIALIAS_ON );
 
-		g2.setFont( getFont() );
 		g2.setColor( getForeground() );
-		FontMetrics fm = g2.getFontMetrics();
 
-		if (layout == Layout.HORIZONTAL)
+		if (glyphs.textLayouts != null)
+		{
+			if (layout == Layout.HORIZONTAL)
+				glyphs.paintTextLayouts(g2, x + padding, y);
+			else
+				glyphs.paintTextLayouts(g2, x, y + padding);
+		}
+		else if (layout == Layout.HORIZONTAL)
 		{
-			g2.translate(x, y +	fm.getAscent());
-			g2.drawString(text, padding, 0);
+			g2.drawGlyphVector(glyphs.glyphVector, x + padding, y + glyphs.ascent);
 		}
 		else if (layout == Layout.VERTICAL)
 		{
-			int offsetY = fm.getAscent() - fm.getDescent() + padding;
-			int incrementY = fm.getHeight() - fm.getDescent();
-
-			for (int i = 0; i < text.length(); i++)
-			{
-				int offsetX = Math.round((getIconWidth() - stringWidths[i]) / 2.0f);
-				g2.drawString(strings[i], x + offsetX, y + offsetY);
-				offsetY += incrementY;
-			}
+			g2.drawGlyphVector(glyphs.glyphVector, x, y + padding);
 		}
 
 //		g2.dispose();
@@ -322,4 +357,147 @@ public class TextIcon implements Icon, PropertyChangeListener
 		if (font == null)
 			calculateIconDimensions();
 	}
+
+	/*
+	 *  The text laid out for painting. The glyphs for Layout.VERTICAL are
+	 *  positioned on separate lines, each glyph centered horizontally. The
+	 *  width and height do not include any padding.
+	 *
+	 *  A GlyphVector maps characters directly to glyphs, so text that requires
+	 *  bidi reordering or shaping is laid out by TextLayouts, the same way
+	 *  Graphics.drawString(...) does it: one for the whole text, or one for
+	 *  each character of vertical text.
+	 */
+	private static class TextGlyphs
+	{
+		private GlyphVector glyphVector;
+		private TextLayout[] textLayouts;
+		private Point[] positions;
+		private final int width;
+		private final int height;
+		private final int ascent;
+
+		TextGlyphs(String text, FontMetrics fm, FontRenderContext frc, Layout layout)
+		{
+			Font font = fm.getFont();
+			ascent = fm.getAscent();
+			char[] chars = text.toCharArray();
+			boolean complex = Font.textRequiresLayout(chars, 0, chars.length)
+				|| Bidi.requiresBidi(chars, 0, chars.length);
+
+			if (layout == Layout.VERTICAL)
+			{
+				//  Map each character to a single glyph so each one can be
+				//  positioned on its own line
+
+				if (complex)
+				{
+					textLayouts = new TextLayout[chars.length];
+					positions = new Point[chars.length];
+				}
+				else
+					glyphVector = font.createGlyphVector(frc, chars);
+
+				int maxWidth = 0;
+				int[] charWidths = new int[text.length()];
+
+				//  Find the widest character in the text string
+
+				for (int i = 0; i < text.length(); i++)
+				{
+					charWidths[i] = fm.stringWidth( text.substring(i, i + 1) );
+					maxWidth = Math.max(maxWidth, charWidths[i]);
+				}
+
+				//  Add a minimum of 2 extra pixels, plus the leading value,
+				//  on each side of the character.
+
+				width = maxWidth + ((fm.getLeading() + 2) * 2);
+
+				//  Decrease then normal gap betweens lines of text by taking into
+				//  account the descent.
+
+				int offsetY = fm.getAscent() - fm.getDescent();
+				int incrementY = fm.getHeight() - fm.getDescent();
+				height = incrementY * text.length();
+
+				for (int i = 0; i < text.length(); i++)
+				{
+					int offsetX = Math.round((width - charWidths[i]) / 2.0f);
+					Point position = new Point(offsetX, offsetY);
+
+					if (complex)
+					{
+						textLayouts[i] = new TextLayout(text.substring(i, i + 1), font, frc);
+						positions[i] = position;
+					}
+					else
+						glyphVector.setGlyphPosition(i, position);
+
+					offsetY += incrementY;
+				}
+			}
+			else
+			{
+				if (complex)
+				{
+					textLayouts = new TextLayout[] {new TextLayout(text, font, frc)};
+					positions = new Point[] {new Point(0, ascent)};
+				}
+				else
+					glyphVector = font.createGlyphVector(frc, text);
+
+				width = fm.stringWidth( text );
+				height = fm.getHeight();
+			}
+		}
+
+		void paintTextLayouts(Graphics2D g2, int x, int y)
+		{
+			for (int i = 0; i < textLayouts.length; i++)
+			{
+				textLayouts[i].draw(g2, x + positions[i].x, y + positions[i].y);
+			}
+		}
+	}
+
+	/*
+	 *  Identifies the laid out text in the shared cache
+	 */
+	private static class GlyphKey
+	{
+		private final String text;
+		private final Font font;
+		private final FontRenderContext frc;
+		private final Layout layout;
+
+		GlyphKey(String text, Font font, FontRenderContext frc, Layout layout)
+		{
+			this.text = text;
+			this.font = font;
+			this.frc = frc;
+			this.layout = layout;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o) return true;
+
+			if (! (o instanceof GlyphKey)) return false;
+
+			GlyphKey key = (GlyphKey)o;
+
+			return text.equals(key.text)
+				&& font.equals(key.font)
+				&& frc.equals(key.frc)
+				&& layout == key.layout;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(text, font, frc, layout);
+		}
+	}
 }
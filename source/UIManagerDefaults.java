@@ -504,73 +504,28 @@ public class UIManagerDefaults implements ActionListener, ItemListener
 				}
 				catch (ClassCastException e)
 				{
-					createStandIn(e, x, y);
+					createStandIn(c);
 					standIn.paintIcon(c, g, x, y);
 				}
 			}
 		}
 
-		/**
-		 * @param e
+		/*
+		 *  Paint the icon to an image using the Component expected by the icon.
+		 *  The Component is found and cached by the IconTableCellRenderer.
 		 */
-		private void createStandIn(ClassCastException e, int x, int y)
+		private void createStandIn(Component c)
 		{
-			try
-			{
-				Class<?> clazz = getClass(e);
-				JComponent standInComponent = getSubstitute(clazz);
-				standIn = createImageIcon(standInComponent, x, y);
-			}
-			catch (Exception e1)
+			JComponent component = c instanceof JComponent ? (JComponent)c : null;
+			standIn = IconTableCellRenderer.createImageIcon(wrappee, component, 0);
+
+			if (standIn == null)
 			{
 				// something went wrong - fallback to this painting
 				standIn = this;
 			}
 		}
 
-		private Icon createImageIcon(JComponent standInComponent, int x, int y)
-		{
-			BufferedImage image = new BufferedImage(getIconWidth(), getIconHeight(), BufferedImage.TYPE_INT_ARGB);
-			Graphics g = image.createGraphics();
-			try
-			{
-				wrappee.paintIcon(standInComponent, g, 0, 0);
-				return new ImageIcon(image);
-			}
-			finally
-			{
-				g.dispose();
-			}
-		}
-
-		/**
-		 * @param clazz
-		 * @throws IllegalAccessException
-		 */
-		private JComponent getSubstitute(Class<?> clazz) throws IllegalAccessException
-		{
-			JComponent standInComponent;
-
-			try
-			{
-				standInComponent = (JComponent) clazz.newInstance();
-			}
-			catch (InstantiationException e)
-			{
-				standInComponent = new AbstractButton() {};
-				((AbstractButton) standInComponent).setModel(new DefaultButtonModel());
-			}
-			return standInComponent;
-		}
-
-		private Class<?> getClass(ClassCastException e) throws ClassNotFoundException
-		{
-			String className = e.getMessage();
-			className = className.substring(className.lastIndexOf(" ") + 1);
-			return Class.forName(className);
-
-		}
-
 		private void paintFallback(Component c, Graphics g, int x, int y)
 		{
 			g.drawRect(x, y, getIconWidth(), getIconHeight());
@@ -5,10 +5,19 @@ package darrylbu.plaf.vertical;
 
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.text.Bidi;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import javax.swing.Icon;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
@@ -27,6 +36,12 @@ import javax.swing.plaf.basic.BasicLabelUI;
  * for Metal L&F by extending MetalLabelUI instead of BasicLabelUI.
  * <P>
  * No other changes are required.
+ * <P>
+ * Enabled text without a mnemonic is painted from a <code>GlyphVector</code>
+ * that is cached per text, font and <code>FontRenderContext</code>, so
+ * repainting many rotated labels doesn't lay out the same text every time.
+ * Text that requires bidi reordering or complex script shaping is painted
+ * by the super method.
  * 
  * @author Darryl
  */
@@ -41,6 +56,16 @@ public class VerticalLabelUI extends BasicLabelUI {
          new VerticalLabelUI();
    private final static VerticalLabelUI SAFE_VERTICAL_LABEL_UI =
          new VerticalLabelUI();
+   private final static int GLYPH_CACHE_SIZE = 1024;
+   private final static Map<GlyphKey, GlyphVector> glyphCache =
+         new LinkedHashMap<GlyphKey, GlyphVector>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(
+                  Map.Entry<GlyphKey, GlyphVector> eldest) {
+               return size() > GLYPH_CACHE_SIZE;
+            }
+         };
 
    /**
     * Constructs a <code>VerticalLabelUI</code> with the default anticlockwise
@@ -133,6 +158,90 @@ public class VerticalLabelUI extends BasicLabelUI {
       super.paint(g2, c);
    }
 
+   /**
+    * Paints the text from a cached <code>GlyphVector</code>.  Text with a
+    * displayed mnemonic is passed to the super method so the mnemonic is
+    * underlined, and text that requires layout, like Arabic, Hebrew or Thai,
+    * so it is reordered and shaped.
+    * <P>
+    * The text antialiasing of the label is taken from the
+    * <code>FontRenderContext</code> of its <code>FontMetrics</code>, which
+    * Swing creates from the antialiasing settings of the label.  LCD text also
+    * needs the contrast of the desktop; when that isn't available the super
+    * method is used.  The hints are restored after the text is painted.
+    *
+    * @see BasicLabelUI#paintEnabledText(JLabel, Graphics, String, int, int)
+    */
+   @Override
+   protected void paintEnabledText(JLabel l, Graphics g, String s,
+         int textX, int textY) {
+      if (l.getDisplayedMnemonicIndex() >= 0 || !(g instanceof Graphics2D)
+            || requiresLayout(s)) {
+         super.paintEnabledText(l, g, s, textX, textY);
+         return;
+      }
+      Font font = l.getFont();
+      Object antialiasing =
+            l.getFontMetrics(font).getFontRenderContext().getAntiAliasingHint();
+      Object contrast = null;
+      if (isLCD(antialiasing)) {
+         Map<?, ?> hints = (Map<?, ?>) Toolkit.getDefaultToolkit().
+               getDesktopProperty("awt.font.desktophints");
+         if (hints == null || !antialiasing.equals(
+               hints.get(RenderingHints.KEY_TEXT_ANTIALIASING))) {
+            super.paintEnabledText(l, g, s, textX, textY);
+            return;
+         }
+         contrast = hints.get(RenderingHints.KEY_TEXT_LCD_CONTRAST);
+      }
+      Graphics2D g2 = (Graphics2D) g;
+      Object oldAntialiasing =
+            g2.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+      Object oldContrast =
+            g2.getRenderingHint(RenderingHints.KEY_TEXT_LCD_CONTRAST);
+      g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, antialiasing);
+      if (contrast != null) {
+         g2.setRenderingHint(RenderingHints.KEY_TEXT_LCD_CONTRAST, contrast);
+      }
+      FontRenderContext frc = g2.getFontRenderContext();
+      GlyphVector glyphs = getGlyphVector(s, font, frc);
+      g2.setColor(l.getForeground());
+      g2.drawGlyphVector(glyphs, textX, textY);
+      if (oldAntialiasing != null) {
+         g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+               oldAntialiasing);
+      }
+      if (contrast != null && oldContrast != null) {
+         g2.setRenderingHint(RenderingHints.KEY_TEXT_LCD_CONTRAST, oldContrast);
+      }
+   }
+
+   private static boolean isLCD(Object antialiasing) {
+      return antialiasing == RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB
+            || antialiasing == RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HBGR
+            || antialiasing == RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_VRGB
+            || antialiasing == RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_VBGR;
+   }
+
+   private static boolean requiresLayout(String text) {
+      char[] chars = text.toCharArray();
+      return Font.textRequiresLayout(chars, 0, chars.length)
+            || Bidi.requiresBidi(chars, 0, chars.length);
+   }
+
+   private static GlyphVector getGlyphVector(String text, Font font,
+         FontRenderContext frc) {
+      GlyphKey key = new GlyphKey(text, font, frc);
+      synchronized (glyphCache) {
+         GlyphVector glyphs = glyphCache.get(key);
+         if (glyphs == null) {
+            glyphs = font.createGlyphVector(frc, text);
+            glyphCache.put(key, glyphs);
+         }
+         return glyphs;
+      }
+   }
+
    /**
     * Returns a Dimension appropriate for vertical rendering
     * 
@@ -188,4 +297,32 @@ public class VerticalLabelUI extends BasicLabelUI {
       to.height = from.height;
       return to;
    }
+
+   private static class GlyphKey {
+
+      private final String text;
+      private final Font font;
+      private final FontRenderContext frc;
+
+      GlyphKey(String text, Font font, FontRenderContext frc) {
+         this.text = text;
+         this.font = font;
+         this.frc = frc;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (!(o instanceof GlyphKey)) {
+            return false;
+         }
+         GlyphKey key = (GlyphKey) o;
+         return text.equals(key.text) && font.equals(key.font)
+               && frc.equals(key.frc);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(text, font, frc);
+      }
+   }
 }
@@ -0,0 +1,543 @@
+import java.awt.*;
+import java.util.Arrays;
+import javax.swing.*;
+import javax.swing.event.*;
+
+/**
+ *  A panel that displays the items of a ListModel wrapped into rows, the same
+ *  way a WrapLayout would lay out a component for each item. However, instead
+ *  of real components a CellRenderer is used to paint each item, so a panel
+ *  can display tens of thousands of items added to a JScrollPane.
+ *
+ *  The preferred size of each cell is cached, as are the row breaks. When the
+ *  model changes the sizes are only requested for the changed items, and the
+ *  rows are only recalculated from the first changed item. Only the rows that
+ *  intersect the clip area, typically the viewport, are painted.
+ *
+ *  The width of the panel tracks the width of the viewport. The height is
+ *  determined by the number of rows required to display all the items.
+ */
+public class VirtualWrapPanel<E> extends JComponent
+	implements Scrollable, ListDataListener
+{
+	/**
+	 *  Returns the component used to paint a single item of the panel.
+	 *  The preferred size of the component is used as the size of the cell.
+	 */
+	public interface CellRenderer<E>
+	{
+		Component getCellRendererComponent(VirtualWrapPanel<? extends E> panel, E value, int index);
+	}
+
+	private ListModel<E> model;
+	private CellRenderer<? super E> renderer;
+	private CellRendererPane rendererPane = new CellRendererPane();
+
+	private int alignment;
+	private int hgap;
+	private int vgap;
+
+	//  The cached size of each cell, null when not yet requested
+
+	private Dimension[] sizes = new Dimension[0];
+
+	//  The row breaks for the width the rows were calculated for. The cells
+	//  of row r are from rowStarts[r] up to rowStarts[r + 1].
+
+	private int[] rowStarts = new int[1];
+	private int[] rowY = new int[1];
+	private int[] rowHeights = new int[1];
+	private int[] rowWidths = new int[1];
+	private int rowCount;
+	private int rowsWidth = -1;
+	private int firstChanged;
+
+	/**
+	 *  Create a panel with centered rows and a default 5-unit horizontal and
+	 *  vertical gap.
+	 *
+	 *  @param model     the model containing the items to display
+	 *  @param renderer  the renderer used to paint each item
+	 */
+	public VirtualWrapPanel(ListModel<E> model, CellRenderer<? super E> renderer)
+	{
+		this(model, renderer, FlowLayout.CENTER, 5, 5);
+	}
+
+	/**
+	 *  Create a panel specifying all the properties.
+	 *
+	 *  @param model      the model containing the items to display
+	 *  @param renderer   the renderer used to paint each item
+	 *  @param alignment  the alignment of each row, one of the FlowLayout
+	 *                    LEFT, CENTER or RIGHT constants
+	 *  @param hgap       the horizontal gap between cells
+	 *  @param vgap       the vertical gap between rows
+	 */
+	public VirtualWrapPanel(ListModel<E> model, CellRenderer<? super E> renderer, int alignment, int hgap, int vgap)
+	{
+		this.renderer = renderer;
+		this.alignment = alignment;
+		this.hgap = hgap;
+		this.vgap = vgap;
+		add( rendererPane );
+		setModel( model );
+	}
+
+	/**
+	 *  Get the model of the panel
+	 *
+	 *  @return the model
+	 */
+	public ListModel<E> getModel()
+	{
+		return model;
+	}
+
+	/**
+	 *  Set the model of the panel. All cached sizes are discarded.
+	 *
+	 *  @param model  the model containing the items to display
+	 */
+	public void setModel(ListModel<E> model)
+	{
+		if (this.model != null)
+			this.model.removeListDataListener( this );
+
+		this.model = model;
+		model.addListDataListener( this );
+		sizes = new Dimension[model.getSize()];
+		invalidateFrom(0);
+	}
+
+	/**
+	 *  Get the renderer used to paint each item
+	 *
+	 *  @return the renderer
+	 */
+	public CellRenderer<? super E> getRenderer()
+	{
+		return renderer;
+	}
+
+	/**
+	 *  Set the renderer used to paint each item. All cached sizes are
+	 *  discarded.
+	 *
+	 *  @param renderer  the renderer used to paint each item
+	 */
+	public void setRenderer(CellRenderer<? super E> renderer)
+	{
+		this.renderer = renderer;
+		invalidateCells(0, sizes.length - 1);
+	}
+
+	/**
+	 *  Discard the cached sizes of a range of cells. This must be invoked
+	 *  when the size of a cell changes without the model firing an event,
+	 *  for example when the Font used by the renderer is changed.
+	 *
+	 *  @param index0  the index of the first cell
+	 *  @param index1  the index of the last cell
+	 */
+	public void invalidateCells(int index0, int index1)
+	{
+		int first = Math.max(0, Math.min(index0, index1));
+		int last = Math.min(sizes.length - 1, Math.max(index0, index1));
+
+		if (first > last) return;
+
+		Arrays.fill(sizes, first, last + 1, null);
+		invalidateFrom(first);
+	}
+
+	/**
+	 *  Get the bounds of a cell relative to this panel.
+	 *
+	 *  @param index  the index of the item
+	 *  @return the bounds of the cell, or null if the index is out of range
+	 */
+	public Rectangle getCellBounds(int index)
+	{
+		if (index < 0 || index >= sizes.length) return null;
+
+		updateRows();
+		int row = findRow(index);
+		int x = getRowX(row);
+
+		for (int i = rowStarts[row]; i < index; i++)
+			x += getCellSize(i).width + hgap;
+
+		Dimension d = getCellSize(index);
+		int y = rowY[row] + (rowHeights[row] - d.height) / 2;
+
+		return new Rectangle(x, y, d.width, d.height);
+	}
+
+	/**
+	 *  Get the index of the cell at the specified location.
+	 *
+	 *  @param point  the location relative to this panel
+	 *  @return the index of the cell, or -1 if there is no cell at the point
+	 */
+	public int locationToIndex(Point point)
+	{
+		updateRows();
+		int row = findRowAt(point.y);
+
+		if (row < 0) return -1;
+
+		int x = getRowX(row);
+
+		for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++)
+		{
+			Dimension d = getCellSize(i);
+			int y = rowY[row] + (rowHeights[row] - d.height) / 2;
+
+			if (point.x >= x && point.x < x + d.width
+			&&  point.y >= y && point.y < y + d.height)
+				return i;
+
+			x += d.width + hgap;
+		}
+
+		return -1;
+	}
+
+	/*
+	 *  Get the size of a cell from the cache, asking the renderer when the
+	 *  size is not cached.
+	 */
+	private Dimension getCellSize(int index)
+	{
+		if (sizes[index] == null)
+		{
+			Component c = renderer.getCellRendererComponent(this, model.getElementAt(index), index);
+			sizes[index] = c.getPreferredSize();
+		}
+
+		return sizes[index];
+	}
+
+	/*
+	 *  The rows from the row containing the specified cell must be recalculated.
+	 *  The previous row is included as the cell may now fit on it.
+	 */
+	private void invalidateFrom(int index)
+	{
+		firstChanged = Math.min(firstChanged, index);
+		revalidate();
+		repaint();
+	}
+
+	/*
+	 *  Recalculate the rows for the current width, starting from the row
+	 *  before the row containing the first changed cell.
+	 */
+	private void updateRows()
+	{
+		int maxWidth = getWidth() - (hgap * 2);
+
+		if (maxWidth <= 0)
+			maxWidth = Integer.MAX_VALUE;
+
+		if (maxWidth != rowsWidth)
+		{
+			rowsWidth = maxWidth;
+			firstChanged = 0;
+		}
+
+		if (firstChanged >= sizes.length
+		&&  rowStarts[rowCount] == sizes.length
+		&&  rowCount > 0)
+			return;
+
+		int row = rowCount == 0 ? 0 : Math.max(0, findRow( Math.min(firstChanged, sizes.length - 1) ) - 1);
+		int start = row == 0 ? 0 : rowStarts[row];
+		int y = row == 0 ? vgap : rowY[row];
+		rowCount = row;
+		rowStarts[row] = start;
+
+		int rowWidth = 0;
+		int rowHeight = 0;
+
+		for (int i = start; i < sizes.length; i++)
+		{
+			Dimension d = getCellSize(i);
+
+			//  Can't add the cell to current row. Start a new row.
+
+			if (rowWidth > 0
+			&&  rowWidth + d.width > maxWidth)
+			{
+				addRow(i, y, rowWidth, rowHeight);
+				y += rowHeight + vgap;
+				rowWidth = 0;
+				rowHeight = 0;
+			}
+
+			//  Add a horizontal gap for all cells after the first
+
+			if (rowWidth != 0)
+				rowWidth += hgap;
+
+			rowWidth += d.width;
+			rowHeight = Math.max(rowHeight, d.height);
+		}
+
+		if (sizes.length > 0)
+			addRow(sizes.length, y, rowWidth, rowHeight);
+
+		firstChanged = sizes.length;
+	}
+
+	/*
+	 *  Complete the current row. The next row will start at the cell at end.
+	 */
+	private void addRow(int end, int y, int width, int height)
+	{
+		if (rowCount + 2 > rowStarts.length)
+		{
+			int capacity = Math.max(rowCount + 2, rowStarts.length * 2);
+			rowStarts = Arrays.copyOf(rowStarts, capacity);
+			rowY = Arrays.copyOf(rowY, capacity);
+			rowHeights = Arrays.copyOf(rowHeights, capacity);
+			rowWidths = Arrays.copyOf(rowWidths, capacity);
+		}
+
+		rowY[rowCount] = y;
+		rowWidths[rowCount] = width;
+		rowHeights[rowCount] = height;
+		rowCount++;
+		rowStarts[rowCount] = end;
+	}
+
+	/*
+	 *  Binary search for the row containing the cell
+	 */
+	private int findRow(int index)
+	{
+		int low = 0;
+		int high = rowCount - 1;
+
+		while (low < high)
+		{
+			int middle = (low + high + 1) >>> 1;
+
+			if (rowStarts[middle] <= index)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+
+		return low;
+	}
+
+	/*
+	 *  Binary search for the row at the y coordinate, -1 when in a gap
+	 */
+	private int findRowAt(int y)
+	{
+		if (rowCount == 0 || y < rowY[0]) return -1;
+
+		int row = findRowBefore(y);
+
+		return y < rowY[row] + rowHeights[row] ? row : -1;
+	}
+
+	/*
+	 *  The x coordinate of the first cell of the row, the same as FlowLayout
+	 */
+	private int getRowX(int row)
+	{
+		int space = rowsWidth == Integer.MAX_VALUE ? 0 : rowsWidth - rowWidths[row];
+		boolean ltr = getComponentOrientation().isLeftToRight();
+
+		switch (alignment)
+		{
+			case FlowLayout.LEFT:
+				return hgap + (ltr ? 0 : space);
+			case FlowLayout.CENTER:
+				return hgap + space / 2;
+			case FlowLayout.RIGHT:
+				return hgap + (ltr ? space : 0);
+			case FlowLayout.TRAILING:
+				return hgap + space;
+			default:
+				return hgap;
+		}
+	}
+
+	/**
+	 *  Paint only the cells of the rows intersecting the clip area.
+	 */
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		if (isOpaque())
+		{
+			g.setColor( getBackground() );
+			g.fillRect(0, 0, getWidth(), getHeight());
+		}
+
+		updateRows();
+
+		if (rowCount == 0) return;
+
+		Rectangle clip = g.getClipBounds();
+
+		if (clip == null)
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+		for (int row = findRowBefore(clip.y); row < rowCount && rowY[row] < clip.y + clip.height; row++)
+		{
+			int x = getRowX(row);
+
+			for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++)
+			{
+				Dimension d = getCellSize(i);
+				int y = rowY[row] + (rowHeights[row] - d.height) / 2;
+				Component c = renderer.getCellRendererComponent(this, model.getElementAt(i), i);
+				rendererPane.paintComponent(g, c, this, x, y, d.width, d.height, true);
+				x += d.width + hgap;
+			}
+		}
+
+		rendererPane.removeAll();
+	}
+
+	/*
+	 *  The last row starting at or above the y coordinate
+	 */
+	private int findRowBefore(int y)
+	{
+		int low = 0;
+		int high = rowCount - 1;
+
+		while (low < high)
+		{
+			int middle = (low + high + 1) >>> 1;
+
+			if (rowY[middle] <= y)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+
+		return low;
+	}
+
+	/**
+	 *  The preferred height is the height of all the rows for the current
+	 *  width. Until the panel has a width all the cells are on a single row.
+	 */
+	@Override
+	public Dimension getPreferredSize()
+	{
+		if (isPreferredSizeSet())
+			return super.getPreferredSize();
+
+		updateRows();
+
+		int width = 0;
+
+		for (int row = 0; row < rowCount; row++)
+			width = Math.max(width, rowWidths[row]);
+
+		int height = rowCount == 0 ? vgap * 2 : rowY[rowCount - 1] + rowHeights[rowCount - 1] + vgap;
+
+		return new Dimension(width + (hgap * 2), height);
+	}
+
+	/**
+	 *  Overridden so a change in width recalculates the rows
+	 */
+	@Override
+	public void setBounds(int x, int y, int width, int height)
+	{
+		boolean widthChanged = width != getWidth();
+
+		super.setBounds(x, y, width, height);
+
+		if (widthChanged)
+			revalidate();
+	}
+
+//
+//  Implement the Scrollable interface
+//
+	public Dimension getPreferredScrollableViewportSize()
+	{
+		return getPreferredSize();
+	}
+
+	public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction)
+	{
+		if (orientation == SwingConstants.HORIZONTAL || rowCount == 0)
+			return 10;
+
+		//  Scroll to the start of the next or previous row
+
+		int row = findRowBefore(visible.y);
+
+		if (direction > 0)
+			return row + 1 < rowCount ? rowY[row + 1] - visible.y : rowHeights[row];
+		else
+			return rowY[row] < visible.y ? visible.y - rowY[row] : (row > 0 ? visible.y - rowY[row - 1] : 0);
+	}
+
+	public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction)
+	{
+		return orientation == SwingConstants.HORIZONTAL ? visible.width : visible.height;
+	}
+
+	public boolean getScrollableTracksViewportWidth()
+	{
+		return true;
+	}
+
+	public boolean getScrollableTracksViewportHeight()
+	{
+		Container parent = SwingUtilities.getUnwrappedParent(this);
+
+		return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+	}
+
+//
+//  Implement the ListDataListener interface
+//
+	public void intervalAdded(ListDataEvent e)
+	{
+		int index0 = Math.min(e.getIndex0(), e.getIndex1());
+		int count = Math.abs(e.getIndex1() - e.getIndex0()) + 1;
+		Dimension[] newSizes = new Dimension[sizes.length + count];
+		System.arraycopy(sizes, 0, newSizes, 0, index0);
+		System.arraycopy(sizes, index0, newSizes, index0 + count, sizes.length - index0);
+		sizes = newSizes;
+		invalidateFrom(index0);
+	}
+
+	public void intervalRemoved(ListDataEvent e)
+	{
+		int index0 = Math.min(e.getIndex0(), e.getIndex1());
+		int count = Math.abs(e.getIndex1() - e.getIndex0()) + 1;
+		Dimension[] newSizes = new Dimension[sizes.length - count];
+		System.arraycopy(sizes, 0, newSizes, 0, index0);
+		System.arraycopy(sizes, index0 + count, newSizes, index0, newSizes.length - index0);
+		sizes = newSizes;
+		invalidateFrom(index0);
+	}
+
+	public void contentsChanged(ListDataEvent e)
+	{
+		//  An index of -1 means the entire list may have changed
+
+		if (e.getIndex0() < 0 || sizes.length != model.getSize())
+		{
+			sizes = new Dimension[model.getSize()];
+			invalidateFrom(0);
+		}
+		else
+			invalidateCells(e.getIndex0(), e.getIndex1());
+	}
+}
@@ -1,14 +1,36 @@
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 
 /**
  *  FlowLayout subclass that fully supports wrapping of components.
+ *
+ *  The preferred size of each component and the row breaks are cached. The
+ *  rows are only recalculated from the first component whose size changed.
+ *  The sizes are only requested again once the container is invalidated, or
+ *  a component is added or removed, and are used both to calculate the
+ *  preferred size of the container and to lay out the components.
+ *
+ *  For containers with many thousands of components consider using a
+ *  VirtualWrapPanel, which paints its cells using a renderer.
  */
-public class WrapLayout extends FlowLayout
+public class WrapLayout extends FlowLayout implements LayoutManager2
 {
 	private Dimension preferredLayoutSize;
 
+	//  The cached preferred size of each component, null when not visible
+
+	private Component[] components = new Component[0];
+	private Dimension[] sizes = new Dimension[0];
+	private boolean stale = true;
+
+	//  The row breaks of the cached sizes for the last width used
+
+	private List<Row> rows = new ArrayList<Row>();
+	private int rowsWidth = -1;
+
 	/**
 	* Constructs a new <code>WrapLayout</code> with a left
 	* alignment and a default 5-unit horizontal and vertical gap.
@@ -113,41 +135,50 @@ public class WrapLayout extends FlowLayout
 		//  Fit components into the allowed width
 
 		Dimension dim = new Dimension(0, 0);
-		int rowWidth = 0;
-		int rowHeight = 0;
-
-		int nmembers = target.getComponentCount();
 
-		for (int i = 0; i < nmembers; i++)
+		if (preferred)
 		{
-			Component m = target.getComponent(i);
+			for (Row row : getRows(target, maxWidth))
+				addRow(dim, row.width, row.height);
+		}
+		else
+		{
+			int rowWidth = 0;
+			int rowHeight = 0;
 
-			if (m.isVisible())
-			{
-				Dimension d = preferred ? m.getPreferredSize() : m.getMinimumSize();
+			int nmembers = target.getComponentCount();
 
-				//  Can't add the component to current row. Start a new row.
+			for (int i = 0; i < nmembers; i++)
+			{
+				Component m = target.getComponent(i);
 
-				if (rowWidth + d.width > maxWidth)
+				if (m.isVisible())
 				{
-					addRow(dim, rowWidth, rowHeight);
-					rowWidth = 0;
-					rowHeight = 0;
-				}
+					Dimension d = m.getMinimumSize();
 
-				//  Add a horizontal gap for all components after the first
+					//  Can't add the component to current row. Start a new row.
 
-				if (rowWidth != 0)
-				{
-					rowWidth += hgap;
-				}
+					if (rowWidth + d.width > maxWidth)
+					{
+						addRow(dim, rowWidth, rowHeight);
+						rowWidth = 0;
+						rowHeight = 0;
+					}
+
+					//  Add a horizontal gap for all components after the first
 
-				rowWidth += d.width;
-				rowHeight = Math.max(rowHeight, d.height);
+					if (rowWidth != 0)
+					{
+						rowWidth += hgap;
+					}
+
+					rowWidth += d.width;
+					rowHeight = Math.max(rowHeight, d.height);
+				}
 			}
-		}
 
-		addRow(dim, rowWidth, rowHeight);
+			addRow(dim, rowWidth, rowHeight);
+		}
 
 		dim.width += horizontalInsetsAndGap;
 		dim.height += insets.top + insets.bottom + vgap * 2;
@@ -187,4 +218,254 @@ public class WrapLayout extends FlowLayout
 
 		dim.height += rowHeight;
 	}
+
+	/**
+	 *  Lay out the components using the cached preferred sizes and rows.
+	 *  The alignment and component orientation are handled the same way
+	 *  as FlowLayout. When components are aligned on their baseline the
+	 *  layout is done by FlowLayout.
+	 *
+	 *  @param target the component which needs to be laid out
+	 */
+	@Override
+	public void layoutContainer(Container target)
+	{
+		if (getAlignOnBaseline())
+		{
+			super.layoutContainer(target);
+			return;
+		}
+
+	synchronized (target.getTreeLock())
+	{
+		int hgap = getHgap();
+		int vgap = getVgap();
+		Insets insets = target.getInsets();
+		int maxWidth = target.getWidth() - (insets.left + insets.right + hgap * 2);
+		boolean ltr = target.getComponentOrientation().isLeftToRight();
+		int y = insets.top + vgap;
+
+		for (Row row : getRows(target, maxWidth))
+		{
+			int x = insets.left + hgap + getAlignmentOffset(maxWidth - row.width, ltr);
+
+			for (int i = row.start; i < row.end; i++)
+			{
+				Dimension d = sizes[i];
+
+				if (d == null) continue;
+
+				Component m = components[i];
+				m.setSize(d.width, d.height);
+				int cy = y + (row.height - d.height) / 2;
+
+				if (ltr)
+					m.setLocation(x, cy);
+				else
+					m.setLocation(target.getWidth() - x - d.width, cy);
+
+				x += d.width + hgap;
+			}
+
+			y += row.height + vgap;
+		}
+	}
+	}
+
+	/*
+	 *  Offset of the first component of a row, the same as FlowLayout
+	 */
+	private int getAlignmentOffset(int space, boolean ltr)
+	{
+		switch (getAlignment())
+		{
+			case LEFT:
+				return ltr ? 0 : space;
+			case CENTER:
+				return space / 2;
+			case RIGHT:
+				return ltr ? space : 0;
+			case TRAILING:
+				return space;
+			default:
+				return 0;
+		}
+	}
+
+	/*
+	 *  Update the cached preferred sizes, unless the container has not been
+	 *  invalidated and no component was added or removed since, and return
+	 *  the rows that fit in the specified width. The rows are only
+	 *  recalculated from the row containing the first component whose size
+	 *  changed.
+	 */
+	private List<Row> getRows(Container target, int maxWidth)
+	{
+		int count = target.getComponentCount();
+		int firstChanged = count;
+
+		if (stale || count != components.length)
+		{
+			Component[] newComponents = new Component[count];
+			Dimension[] newSizes = new Dimension[count];
+
+			for (int i = 0; i < count; i++)
+			{
+				Component m = target.getComponent(i);
+				newComponents[i] = m;
+
+				newSizes[i] = m.isVisible() ? m.getPreferredSize() : null;
+
+				if (firstChanged == count
+				&&  (i >= components.length
+				||   components[i] != m
+				||   ! equals(sizes[i], newSizes[i])))
+					firstChanged = i;
+			}
+
+			components = newComponents;
+			sizes = newSizes;
+			stale = false;
+		}
+
+		if (maxWidth != rowsWidth)
+		{
+			rows.clear();
+			rowsWidth = maxWidth;
+			firstChanged = 0;
+		}
+
+		updateRows(firstChanged, maxWidth);
+
+		return rows;
+	}
+
+	/*
+	 *  Recalculate the rows starting from the row before the row that
+	 *  contains the first changed component, as a change in size may allow
+	 *  the component to fit on the previous row. This follows the rules
+	 *  used by FlowLayout to lay out the components.
+	 */
+	private void updateRows(int firstChanged, int maxWidth)
+	{
+		if (! rows.isEmpty()
+		&&  firstChanged == sizes.length
+		&&  rows.get(rows.size() - 1).end == sizes.length)
+			return;
+
+		int r = 0;
+
+		while (r < rows.size() && rows.get(r).end <= firstChanged)
+			r++;
+
+		r = Math.min(Math.max(0, r - 1), rows.size());
+		int start = r < rows.size() ? rows.get(r).start : 0;
+		rows.subList(r, rows.size()).clear();
+
+		int hgap = getHgap();
+		Row row = new Row(start);
+
+		for (int i = start; i < sizes.length; i++)
+		{
+			Dimension d = sizes[i];
+
+			if (d == null) continue;
+
+			//  Can't add the component to current row. Start a new row.
+
+			if (row.width > 0
+			&&  row.width + d.width > maxWidth)
+			{
+				row.end = i;
+				rows.add( row );
+				row = new Row(i);
+			}
+
+			//  Add a horizontal gap for all components after the first
+
+			if (row.width != 0)
+			{
+				row.width += hgap;
+			}
+
+			row.width += d.width;
+			row.height = Math.max(row.height, d.height);
+		}
+
+		row.end = sizes.length;
+		rows.add( row );
+	}
+
+	private static boolean equals(Dimension d1, Dimension d2)
+	{
+		return d1 == null ? d2 == null : d1.equals(d2);
+	}
+
+//
+//  Implement the LayoutManager2 interface
+//
+	/**
+	 *  Request the preferred sizes of the components again when laying out
+	 *  the container. This is invoked when the target container is
+	 *  invalidated.
+	 *
+	 *  @param target the target container
+	 */
+	@Override
+	public void invalidateLayout(Container target)
+	{
+		stale = true;
+	}
+
+	@Override
+	public void addLayoutComponent(Component comp, Object constraints)
+	{
+		addLayoutComponent((String)null, comp);
+	}
+
+	@Override
+	public void addLayoutComponent(String name, Component comp)
+	{
+		stale = true;
+	}
+
+	@Override
+	public void removeLayoutComponent(Component comp)
+	{
+		stale = true;
+	}
+
+	@Override
+	public Dimension maximumLayoutSize(Container target)
+	{
+		return new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public float getLayoutAlignmentX(Container target)
+	{
+		return 0.5f;
+	}
+
+	@Override
+	public float getLayoutAlignmentY(Container target)
+	{
+		return 0.5f;
+	}
+
+	/*
+	 *  The components, from start up to but not including end, on a row
+	 */
+	private static class Row
+	{
+		private int start;
+		private int end;
+		private int width;
+		private int height;
+
+		Row(int start)
+		{
+			this.start = start;
+		}
+	}
 }